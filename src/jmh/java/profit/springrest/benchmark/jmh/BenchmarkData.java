@@ -0,0 +1,76 @@
+package profit.springrest.benchmark.jmh;
+
+import profit.springrest.data.Director;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieListDto;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic sample data shared by the benchmarks. Every tenth title contains a comma and
+ * quotes so the CSV escaping path is exercised.
+ */
+final class BenchmarkData {
+    private static final Genres[] GENRES = Genres.values();
+
+    private BenchmarkData() {
+    }
+
+    static String title(int i) {
+        return i % 10 == 0 ? "The \"Remake\", part " + i : "Movie title number " + i;
+    }
+
+    /**
+     * Movies spread over {@code directorCount} directors, each director holding its movies in
+     * {@link Director#getMovies()} as it would after loading the association.
+     */
+    static List<Movie> movieGraph(int movieCount, int directorCount) {
+        List<Director> directors = new ArrayList<>(directorCount);
+        for (int d = 0; d < directorCount; d++) {
+            Director director = new Director();
+            director.setId((long) d + 1);
+            director.setName("Director " + d);
+            directors.add(director);
+        }
+
+        List<Movie> movies = new ArrayList<>(movieCount);
+        for (int i = 0; i < movieCount; i++) {
+            Director director = directors.get(i % directorCount);
+            Movie movie = new Movie();
+            movie.setId((long) i + 1);
+            movie.setTitle(title(i));
+            movie.setReleaseYear(1950 + i % 75);
+            movie.setGenre(GENRES[i % GENRES.length]);
+            movie.setDirector(director);
+            director.getMovies().add(movie);
+            movies.add(movie);
+        }
+        return movies;
+    }
+
+    static List<MovieListDto> listRows(int count) {
+        List<MovieListDto> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new MovieListDto((long) i + 1, title(i), 1950 + i % 75, GENRES[i % GENRES.length],
+                    "Director " + i % 500));
+        }
+        return rows;
+    }
+
+    static byte[] importJson(int elements) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(elements * 96);
+        out.writeBytes("[".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < elements; i++) {
+            String element = "%s{\"title\":\"%s\",\"releaseYear\":%d,\"genre\":\"%s\",\"directorId\":%d}\n".formatted(
+                    i == 0 ? "" : ",", title(i).replace("\"", "\\\""), 1950 + i % 75, GENRES[i % GENRES.length],
+                    1 + i % 500);
+            out.writeBytes(element.getBytes(StandardCharsets.UTF_8));
+        }
+        out.writeBytes("]".getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,56 @@
+package profit.springrest.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import profit.springrest.dto.movie.MovieListDto;
+import profit.springrest.service.movie.MovieCsvWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The row loop of {@code generateCsvReport} for 100k rows, with the same writer stack and buffer
+ * size, writing into a discarding stream so only rendering and encoding are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvReportBenchmark {
+    private static final int ROWS = 100_000;
+    private static final int CSV_BUFFER_SIZE = 8192;
+
+    private List<MovieListDto> rows;
+
+    @Setup
+    public void setUp() {
+        rows = BenchmarkData.listRows(ROWS);
+    }
+
+    @Benchmark
+    public void render100kRows() throws IOException {
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8), CSV_BUFFER_SIZE);
+        MovieCsvWriter.writeHeader(writer);
+        for (MovieListDto row : rows) {
+            MovieCsvWriter.writeRow(writer, row);
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,58 @@
+package profit.springrest.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import profit.springrest.dto.movie.MovieRequestDto;
+import profit.springrest.service.movie.MovieImportReader;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The parsing half of {@code importMovies}: reading a JSON array element by element with
+ * {@link MovieImportReader} and binding each element to {@link MovieRequestDto}. The input is
+ * held in memory so file I/O is excluded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ImportParsingBenchmark {
+    @Param({"10000", "1000000"})
+    private int elements;
+
+    private ObjectMapper objectMapper;
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+        json = BenchmarkData.importJson(elements);
+    }
+
+    @Benchmark
+    public long parseArray(Blackhole blackhole) {
+        try (MovieImportReader reader = new MovieImportReader(objectMapper, new ByteArrayInputStream(json))) {
+            JsonNode element;
+            while ((element = reader.nextElement()) != null) {
+                blackhole.consume(objectMapper.treeToValue(element, MovieRequestDto.class));
+            }
+            return reader.rowNumber();
+        }
+    }
+}
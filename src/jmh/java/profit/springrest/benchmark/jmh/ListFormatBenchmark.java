@@ -0,0 +1,77 @@
+package profit.springrest.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import profit.springrest.config.WebConfig;
+import profit.springrest.dto.movie.MovieListDto;
+import profit.springrest.dto.movie.PageResponse;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A 1000-row {@code /_list} page in each negotiated format, with and without the gzip step the
+ * server applies above {@code server.compression.min-response-size}. Payload sizes are printed
+ * once per trial, since JMH only reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListFormatBenchmark {
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper mapper;
+    private PageResponse<MovieListDto> page;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            // WebConfig only adds CBOR and Smile, so JSON is written by the default converter's mapper
+            case "json" -> new JacksonJsonHttpMessageConverter().getMapper();
+            case "cbor" -> WebConfig.cborMapper();
+            case "smile" -> WebConfig.smileMapper();
+            default -> throw new IllegalArgumentException(format);
+        };
+        page = PageResponse.<MovieListDto>builder()
+                .list(BenchmarkData.listRows(PAGE_SIZE))
+                .totalElements(250_000L)
+                .totalPages(250_000 / PAGE_SIZE)
+                .build();
+        System.out.printf("%n%s%s payload: %d bytes%n", format, gzip ? "+gzip" : "", serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        byte[] body = mapper.writeValueAsBytes(page);
+        if (!gzip) {
+            return body;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,59 @@
+package profit.springrest.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import profit.springrest.data.Movie;
+import profit.springrest.mapper.MovieMapper;
+import profit.springrest.mapper.impl.DirectorMapperImpl;
+import profit.springrest.mapper.impl.MovieMapperImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct entity-to-DTO mapping over 1000 movies of 50 directors; scores are per movie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieMapperBenchmark {
+    private static final int MOVIES = 1000;
+
+    private MovieMapper movieMapper;
+    private List<Movie> movies;
+
+    @Setup
+    public void setUp() {
+        movieMapper = new MovieMapperImpl(new DirectorMapperImpl());
+        movies = BenchmarkData.movieGraph(MOVIES, 50);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVIES)
+    public void toDto(Blackhole blackhole) {
+        for (Movie movie : movies) {
+            blackhole.consume(movieMapper.toDto(movie));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVIES)
+    public void toListDto(Blackhole blackhole) {
+        for (Movie movie : movies) {
+            blackhole.consume(movieMapper.toListDto(movie));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package profit.springrest.benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import profit.springrest.dto.movie.MovieListDto;
+import profit.springrest.dto.movie.PageResponse;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of one {@code /_list} response body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageSerializationBenchmark {
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private PageResponse<MovieListDto> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+        page = PageResponse.<MovieListDto>builder()
+                .list(BenchmarkData.listRows(pageSize))
+                .totalElements(250_000L)
+                .totalPages(250_000 / pageSize)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializePage() {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
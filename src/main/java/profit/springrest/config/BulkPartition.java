@@ -0,0 +1,16 @@
+package profit.springrest.config;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs background work inside the {@link DbBulkhead.Partition#BULK} partition. Threads outside a
+ * request (import workers) call this proxied bean once, so that every service and repository call
+ * they make afterwards passes through on the bulk permit instead of taking an interactive one.
+ */
+@Component
+public class BulkPartition {
+    @DbBulkhead(DbBulkhead.Partition.BULK)
+    public void run(Runnable work) {
+        work.run();
+    }
+}
@@ -0,0 +1,18 @@
+package profit.springrest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Permits per bulkhead partition. When not set, a quarter of the connection pool (at least one
+ * connection) goes to bulk work and the rest to interactive requests.
+ */
+@ConfigurationProperties(prefix = "movie.bulkhead")
+public record BulkheadProperties(
+        Integer bulkPermits,
+        Integer interactivePermits,
+        @DefaultValue("PT5S") Duration maxWait
+) {
+}
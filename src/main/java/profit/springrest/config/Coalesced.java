@@ -0,0 +1,17 @@
+package profit.springrest.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lets concurrent calls of the annotated read-only method with equal arguments share one
+ * execution and its result or exception. {@link #value()} names the method in the
+ * {@code singleflight.calls} metrics. See {@link SingleFlightAspect}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+    String value();
+}
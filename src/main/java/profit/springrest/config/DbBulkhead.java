@@ -0,0 +1,21 @@
+package profit.springrest.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated method inside one permit of the given database bulkhead partition. Data
+ * access that is not annotated uses the {@link Partition#INTERACTIVE} partition.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DbBulkhead {
+    Partition value();
+
+    enum Partition {
+        INTERACTIVE,
+        BULK
+    }
+}
@@ -0,0 +1,105 @@
+package profit.springrest.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import profit.springrest.config.DbBulkhead.Partition;
+import profit.springrest.exception.BulkheadFullException;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Semaphore bulkhead in front of the data access layer, active when requests run on virtual
+ * threads. Virtual threads remove the request thread limit, so without it any number of requests
+ * could queue for the connection pool; here bulk work (imports, reports) and interactive requests
+ * wait in separate partitions whose permits add up to the pool size, so a few large imports can
+ * never take the connections interactive requests need.
+ * <p>
+ * A thread takes one permit at its outermost service or repository call (or {@link DbBulkhead}
+ * method) and holds it until that call returns; nested calls pass straight through. It runs
+ * before the transaction interceptor, so the permit is held before a connection is borrowed.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class DbBulkheadAspect {
+    private static final ThreadLocal<Partition> HELD = new ThreadLocal<>();
+
+    private final Map<Partition, Semaphore> permits = new EnumMap<>(Partition.class);
+    private final Map<Partition, Timer> waitTimers = new EnumMap<>(Partition.class);
+    private final Duration maxWait;
+
+    public DbBulkheadAspect(BulkheadProperties properties, DataSource dataSource, MeterRegistry meterRegistry) {
+        int poolSize = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+        int bulk = properties.bulkPermits() != null ? properties.bulkPermits() : Math.max(1, poolSize / 4);
+        int interactive = properties.interactivePermits() != null
+                ? properties.interactivePermits()
+                : Math.max(1, poolSize - bulk);
+        this.maxWait = properties.maxWait();
+
+        permits.put(Partition.BULK, new Semaphore(bulk, true));
+        permits.put(Partition.INTERACTIVE, new Semaphore(interactive, true));
+        for (Partition partition : Partition.values()) {
+            String tag = partition.name().toLowerCase();
+            waitTimers.put(partition, Timer.builder("db.bulkhead.wait")
+                    .description("Time spent waiting for a database bulkhead permit")
+                    .tag("partition", tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            Gauge.builder("db.bulkhead.available", permits.get(partition), Semaphore::availablePermits)
+                    .description("Free database bulkhead permits")
+                    .tag("partition", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Around("@annotation(bulkhead)")
+    public Object aroundPartitioned(ProceedingJoinPoint joinPoint, DbBulkhead bulkhead) throws Throwable {
+        return guard(joinPoint, bulkhead.value());
+    }
+
+    @Around("(@within(org.springframework.stereotype.Service)"
+            + " || @within(org.springframework.stereotype.Repository)"
+            + " || this(org.springframework.data.repository.Repository))"
+            + " && !@annotation(profit.springrest.config.DbBulkhead)")
+    public Object aroundDataAccess(ProceedingJoinPoint joinPoint) throws Throwable {
+        return guard(joinPoint, Partition.INTERACTIVE);
+    }
+
+    Object guard(ProceedingJoinPoint joinPoint, Partition partition) throws Throwable {
+        if (HELD.get() != null) {
+            return joinPoint.proceed();
+        }
+
+        Semaphore semaphore = permits.get(partition);
+        long started = System.nanoTime();
+        boolean acquired = semaphore.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        waitTimers.get(partition).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            throw new BulkheadFullException("Database is busy (" + partition.name().toLowerCase()
+                    + " requests), please retry");
+        }
+
+        HELD.set(partition);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            HELD.remove();
+            semaphore.release();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package profit.springrest.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.multipart.MultipartFile;
+import profit.springrest.exception.IdempotencyConflictException;
+import profit.springrest.exception.IdempotencyKeyReusedException;
+import profit.springrest.service.idempotency.IdempotencyStore;
+import profit.springrest.service.idempotency.IdempotentResponse;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Answers retried {@link Idempotent} requests from the {@link IdempotencyStore}. Keys are scoped
+ * to the handler method, and the stored response remembers a fingerprint of the handler's
+ * arguments, so reusing a key for a different request is rejected with 422 instead of being
+ * answered with someone else's response.
+ * <p>
+ * Duplicates that arrive while the first request is running wait for its outcome, as
+ * {@code MovieReportCache} does for report generation. Only requests on this instance are seen
+ * as in flight. A handler that throws stores nothing, so one of the waiting duplicates runs it
+ * again; a duplicate still waiting after {@code movie.idempotency.max-wait} gets 409.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class IdempotencyAspect {
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Around("@annotation(profit.springrest.config.Idempotent)")
+    public Object aroundIdempotent(ProceedingJoinPoint joinPoint) throws Throwable {
+        String key = requestKey();
+        if (key == null) {
+            return joinPoint.proceed();
+        }
+        if (key.length() > properties.maxKeyLength()) {
+            throw new IllegalArgumentException(KEY_HEADER + " must be at most " + properties.maxKeyLength()
+                    + " characters");
+        }
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String scopedKey = signature.getDeclaringType().getSimpleName() + "." + signature.getName() + ":" + key;
+        Type bodyType = ResolvableType.forMethodReturnType(signature.getMethod()).getGeneric(0).getType();
+        return execute(joinPoint, scopedKey, fingerprint(joinPoint.getArgs()), bodyType);
+    }
+
+    Object execute(ProceedingJoinPoint joinPoint, String key, String fingerprint, Type bodyType) throws Throwable {
+        long deadline = System.nanoTime() + properties.maxWait().toNanos();
+        while (true) {
+            IdempotentResponse stored = store.find(key, bodyType);
+            if (stored != null) {
+                return replay(stored, fingerprint);
+            }
+
+            CompletableFuture<IdempotentResponse> mine = new CompletableFuture<>();
+            CompletableFuture<IdempotentResponse> running = inFlight.putIfAbsent(key, mine);
+            if (running == null) {
+                return runFirst(joinPoint, key, fingerprint, bodyType, mine);
+            }
+
+            IdempotentResponse outcome = await(running, deadline);
+            if (outcome != null) {
+                return replay(outcome, fingerprint);
+            }
+        }
+    }
+
+    private Object runFirst(ProceedingJoinPoint joinPoint, String key, String fingerprint, Type bodyType,
+                            CompletableFuture<IdempotentResponse> mine) throws Throwable {
+        try {
+            // The previous holder may have stored its response between our lookup and our claim.
+            IdempotentResponse stored = store.find(key, bodyType);
+            if (stored != null) {
+                mine.complete(stored);
+                return replay(stored, fingerprint);
+            }
+
+            ResponseEntity<?> response = (ResponseEntity<?>) joinPoint.proceed();
+            IdempotentResponse outcome = IdempotentResponse.of(fingerprint, response);
+            if (response.getStatusCode().is2xxSuccessful()) {
+                store.save(key, outcome);
+            }
+            mine.complete(outcome);
+            return response;
+        } catch (Throwable e) {
+            mine.complete(null);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private IdempotentResponse await(CompletableFuture<IdempotentResponse> running, long deadline)
+            throws InterruptedException, ExecutionException {
+        try {
+            return running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with this " + KEY_HEADER + " is still in progress");
+        }
+    }
+
+    private ResponseEntity<Object> replay(IdempotentResponse response, String fingerprint) {
+        if (!response.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException(KEY_HEADER + " was already used for a different request");
+        }
+        return response.toResponseEntity(REPLAYED_HEADER);
+    }
+
+    // A SHA-256 of the arguments' JSON rather than hashCode(): enum hash codes differ between
+    // JVMs, the jdbc store compares fingerprints across instances and restarts, and a 32-bit hash
+    // would let a different request replay someone else's response. An upload stands in as its
+    // name and the SHA-256 of its content, so a corrected file sent under the same key is rejected.
+    String fingerprint(Object[] args) {
+        List<Object> values = Arrays.stream(args)
+                .map(arg -> arg instanceof MultipartFile file ? file.getOriginalFilename() + ":" + contentDigest(file) : arg)
+                .toList();
+        return HexFormat.of().formatHex(sha256().digest(objectMapper.writeValueAsBytes(values)));
+    }
+
+    private static String contentDigest(MultipartFile file) {
+        MessageDigest digest = sha256();
+        // every call opens a new stream over the stored upload, so the handler still reads it from the start
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read uploaded file", e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String requestKey() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        String key = request.getHeader(KEY_HEADER);
+        return key == null || key.isBlank() ? null : key;
+    }
+}
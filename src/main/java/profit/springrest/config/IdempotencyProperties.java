@@ -0,0 +1,24 @@
+package profit.springrest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Where responses to {@link Idempotent} requests are kept ({@code memory}, or the
+ * {@code idempotency_keys} table with {@code jdbc}) and for how long. The memory store also keeps
+ * at most {@code maxEntries} responses and {@code maxSize} of response bodies, oldest first out.
+ * A duplicate waits up to {@code maxWait} for the request still running under its key.
+ */
+@ConfigurationProperties(prefix = "movie.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("memory") String store,
+        @DefaultValue("10000") int maxEntries,
+        @DefaultValue("64MB") DataSize maxSize,
+        @DefaultValue("PT24H") Duration ttl,
+        @DefaultValue("PT30S") Duration maxWait,
+        @DefaultValue("255") int maxKeyLength
+) {
+}
@@ -0,0 +1,17 @@
+package profit.springrest.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lets clients retry the annotated handler safely: a request carrying an {@code Idempotency-Key}
+ * header already answered by this handler gets the stored response instead of running again, and
+ * a duplicate that arrives while the first is still running waits for it. The handler must return
+ * a {@code ResponseEntity}. See {@link IdempotencyAspect}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+}
@@ -0,0 +1,24 @@
+package profit.springrest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Chunking of imports and the background job pool: {@code workers} imports run at once, up to
+ * {@code queueCapacity} more wait, and uploads are spooled to {@code spoolDir} until their job
+ * finishes. An instance holds each job it has queued or is running for {@code lease}, renewing it
+ * as it goes; once the lease expires, any instance that can read the spool file may claim the job.
+ */
+@ConfigurationProperties(prefix = "movie.import")
+public record ImportProperties(
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("100") int maxReportedFailures,
+        @DefaultValue("2") int workers,
+        @DefaultValue("16") int queueCapacity,
+        @DefaultValue("import-spool") Path spoolDir,
+        @DefaultValue("PT1M") Duration lease
+) {
+}
@@ -0,0 +1,17 @@
+package profit.springrest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Where generated CSV reports are kept and how many bytes of them, least recently used first out.
+ */
+@ConfigurationProperties(prefix = "movie.report.cache")
+public record ReportCacheProperties(
+        @DefaultValue("report-cache") Path dir,
+        @DefaultValue("512MB") DataSize maxSize
+) {
+}
@@ -0,0 +1,133 @@
+package profit.springrest.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single-flight for {@link Coalesced} methods: the first caller for a name and argument list runs
+ * the method, and callers arriving while it runs wait for its outcome instead of running their
+ * own query. A call that starts after the flight has landed runs again, so results are never
+ * older than the moment the caller arrived minus one query.
+ * <p>
+ * Flights are kept in lock stripes chosen by key hash, so callers for unrelated keys rarely
+ * touch the same lock, and the lock is only held to look up or register a flight, never while
+ * the method runs. The aspect runs before {@link DbBulkheadAspect} and the transaction
+ * interceptor, so waiting callers hold neither a bulkhead permit nor a connection. Calls made
+ * inside a transaction are not coalesced, since they may need to see that transaction's writes.
+ * <p>
+ * {@code singleflight.calls} counts calls per name by role: {@code leader} calls ran the method,
+ * {@code follower} calls shared a leader's result. The coalescing ratio is followers over all
+ * calls.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SingleFlightAspect {
+    private static final int STRIPES = 64;
+    private static final int LEADER = 0;
+    private static final int FOLLOWER = 1;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+    public SingleFlightAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Around("@annotation(coalesced)")
+    public Object aroundCoalesced(ProceedingJoinPoint joinPoint, Coalesced coalesced) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        return coalesce(new FlightKey(coalesced.value(), Arrays.asList(joinPoint.getArgs())), joinPoint);
+    }
+
+    Object coalesce(FlightKey key, ProceedingJoinPoint joinPoint) throws Throwable {
+        Stripe stripe = stripes[spread(key.hashCode()) & (STRIPES - 1)];
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running;
+        stripe.lock.lock();
+        try {
+            running = stripe.flights.putIfAbsent(key, flight);
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        if (running != null) {
+            calls(key)[FOLLOWER].increment();
+            try {
+                return running.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+
+        calls(key)[LEADER].increment();
+        try {
+            Object result = joinPoint.proceed();
+            land(stripe, key, flight);
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            land(stripe, key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static void land(Stripe stripe, FlightKey key, CompletableFuture<Object> flight) {
+        stripe.lock.lock();
+        try {
+            stripe.flights.remove(key, flight);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Registered once per name: building and looking up a counter on every call costs more than
+    // the coalescing lookup itself.
+    private Counter[] calls(FlightKey key) {
+        return counters.computeIfAbsent(key.name(), name -> new Counter[]{calls(name, "leader"), calls(name, "follower")});
+    }
+
+    private Counter calls(String name, String role) {
+        return Counter.builder("singleflight.calls")
+                .description("Calls of coalesced methods, by whether they ran the method or shared a result")
+                .tag("name", name)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+
+    // Same bit mixing as HashMap, so keys differing only in high bits land in different stripes.
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    record FlightKey(String name, List<Object> args) {
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<FlightKey, CompletableFuture<Object>> flights = new HashMap<>();
+    }
+}
@@ -0,0 +1,37 @@
+package profit.springrest.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Exposes the pg_trgm operators to HQL and criteria queries, registered through
+ * {@code META-INF/services}:
+ * <ul>
+ *     <li>{@code title_matches(column, pattern, term)}: {@code column ILIKE pattern} or
+ *     {@code term <% column} (word similarity above {@code pg_trgm.word_similarity_threshold})</li>
+ *     <li>{@code title_relevance(column, term)}: {@code word_similarity(term, column)}</li>
+ * </ul>
+ * Both conditions of {@code title_matches} can be answered by a {@code gin_trgm_ops} index.
+ */
+public class TrigramFunctionContributor implements FunctionContributor {
+    public static final String TITLE_MATCHES = "title_matches";
+    public static final String TITLE_RELEVANCE = "title_relevance";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        SqmFunctionRegistry registry = functionContributions.getFunctionRegistry();
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        registry.patternDescriptorBuilder(TITLE_MATCHES, "(?1 ilike ?2 or ?3 <% ?1)")
+                .setExactArgumentCount(3)
+                .setInvariantType(types.resolve(StandardBasicTypes.BOOLEAN))
+                .register();
+        registry.patternDescriptorBuilder(TITLE_RELEVANCE, "word_similarity(?2, ?1)")
+                .setExactArgumentCount(2)
+                .setInvariantType(types.resolve(StandardBasicTypes.FLOAT))
+                .register();
+    }
+}
@@ -1,19 +1,75 @@
 package profit.springrest.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.cbor.CBORWriteFeature;
+import tools.jackson.dataformat.smile.SmileMapper;
+import tools.jackson.dataformat.smile.SmileWriteFeature;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 @EnableWebMvc
 @Configuration
-public class WebConfig {
+public class WebConfig implements WebMvcConfigurer {
+    private final ObjectProvider<AsyncTaskExecutor> applicationTaskExecutor;
+    private final Duration asyncRequestTimeout;
+
+    public WebConfig(@Qualifier("applicationTaskExecutor") ObjectProvider<AsyncTaskExecutor> applicationTaskExecutor,
+                     @Value("${movie.web.async-request-timeout:PT10M}") Duration asyncRequestTimeout) {
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.asyncRequestTimeout = asyncRequestTimeout;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // @EnableWebMvc switches off Boot's MVC auto-configuration, so streamed responses
+        // (CSV reports) are wired to the shared executor and timeout here.
+        applicationTaskExecutor.ifAvailable(configurer::setTaskExecutor);
+        configurer.setDefaultTimeout(asyncRequestTimeout.toMillis());
+    }
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.withCborConverter(new JacksonCborHttpMessageConverter(cborMapper()))
+                .withSmileConverter(new JacksonSmileHttpMessageConverter(smileMapper()));
+    }
+
+    /**
+     * CBOR with the stringref extension: a repeated string (field name, genre, director name) is
+     * written once and referenced by index afterwards.
+     */
+    public static CBORMapper cborMapper() {
+        return CBORMapper.builder()
+                .enable(CBORWriteFeature.STRINGREF)
+                .build();
+    }
+
+    /**
+     * Smile with back-references for repeated field names and short string values.
+     */
+    public static SmileMapper smileMapper() {
+        return SmileMapper.builder()
+                .enable(SmileWriteFeature.CHECK_SHARED_NAMES, SmileWriteFeature.CHECK_SHARED_STRING_VALUES)
+                .build();
+    }
+
     @Bean
     public CorsFilter corsFilter() {
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
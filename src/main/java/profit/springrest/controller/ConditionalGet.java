@@ -0,0 +1,73 @@
+package profit.springrest.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Answers a GET with 304 when the client's {@code If-None-Match} matches the current version, so
+ * the body is only loaded and serialized when it has changed. The version must be read before
+ * the body: a body newer than its ETag is only refetched once more, never served stale.
+ * <p>
+ * CBOR and Smile bodies are different representations of the same version, so their ETags carry
+ * the format and the response varies by {@code Accept}.
+ */
+final class ConditionalGet {
+    private static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private ConditionalGet() {
+    }
+
+    static <T> ResponseEntity<T> respond(WebRequest request, String version, Supplier<T> body) {
+        String eTag = version + formatSuffix(request.getHeader(HttpHeaders.ACCEPT));
+        // Set before checkNotModified so the 304 varies by Accept too, like the 200 it validates
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        if (request.checkNotModified(eTag)) {
+            // checkNotModified has already written the 304 status and ETag header
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body.get());
+    }
+
+    /**
+     * Mirrors content negotiation: the most specific, highest-quality accepted type wins, and
+     * wildcards resolve to JSON.
+     */
+    private static String formatSuffix(String accept) {
+        if (accept == null) {
+            return "";
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "";
+            }
+            if (type.equalsTypeAndSubtype(CBOR)) {
+                return "-cbor";
+            }
+            if (type.equalsTypeAndSubtype(SMILE)) {
+                return "-smile";
+            }
+        }
+        return "";
+    }
+}
@@ -9,9 +9,17 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import profit.springrest.config.Idempotent;
+import profit.springrest.dto.director.DirectorDeleteRequestDto;
+import profit.springrest.dto.director.DirectorDeleteResultDto;
 import profit.springrest.dto.director.DirectorRequestDto;
+import profit.springrest.dto.director.DirectorResolveRequestDto;
 import profit.springrest.dto.director.DirectorResponseDto;
+import profit.springrest.dto.director.DirectorUpsertResultDto;
+import profit.springrest.dto.movie.PageResponse;
 import profit.springrest.service.director.DirectorService;
+
 import java.util.List;
 
 @RestController
@@ -22,10 +30,17 @@ public class DirectorController {
 
     private final DirectorService directorService;
 
-    @Operation(summary = "Get all directors")
+    @Operation(summary = "List directors",
+            description = "Keyset pages in id order, optionally filtered by a case-insensitive name prefix. "
+                    + "Pass nextCursor back as cursor for the next page.")
+    @ApiResponse(responseCode = "400", description = "Size outside 1..100 or malformed cursor")
     @GetMapping
-    public ResponseEntity<List<DirectorResponseDto>> findAllDirectors() {
-        return ResponseEntity.ok(directorService.getAllDirectors());
+    public ResponseEntity<PageResponse<DirectorResponseDto>> findDirectors(@RequestParam(required = false) String name,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(defaultValue = "20") int size,
+                                                                           WebRequest request) {
+        return ConditionalGet.respond(request, directorService.getDirectorsVersionTag(),
+                () -> directorService.getDirectors(name, cursor, size));
     }
 
     @Operation(summary = "Create a new director")
@@ -33,12 +48,39 @@ public class DirectorController {
             @ApiResponse(responseCode = "201", description = "Director successfully created"),
             @ApiResponse(responseCode = "400", description = "Validation error or director name already exists")
     })
+    @Idempotent
     @PostMapping
     public ResponseEntity<DirectorResponseDto> createDirector(@RequestBody @Valid DirectorRequestDto directorRequestDto) {
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(directorService.createDirector(directorRequestDto));
     }
 
+    @Operation(summary = "Get or create a director by name",
+            description = "Returns the director with this name, creating it if there is none, in one statement")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Director already existed"),
+            @ApiResponse(responseCode = "201", description = "Director created"),
+            @ApiResponse(responseCode = "400", description = "Validation error")
+    })
+    @Idempotent
+    @PostMapping("/_upsert")
+    public ResponseEntity<DirectorUpsertResultDto> upsertDirector(@RequestBody @Valid DirectorRequestDto directorRequestDto) {
+        DirectorUpsertResultDto result = directorService.upsertDirector(directorRequestDto);
+        return ResponseEntity.status(result.created() ? HttpStatus.CREATED : HttpStatus.OK).body(result);
+    }
+
+    @Operation(summary = "Resolve director names to ids",
+            description = "Creates the missing directors and returns every name's id, in one statement")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "One entry per distinct name, in request order"),
+            @ApiResponse(responseCode = "400", description = "No names, more than 10000, or an invalid name")
+    })
+    @Idempotent
+    @PostMapping("/_resolve")
+    public ResponseEntity<List<DirectorUpsertResultDto>> resolveDirectors(@RequestBody @Valid DirectorResolveRequestDto request) {
+        return ResponseEntity.ok(directorService.upsertDirectors(request.names()));
+    }
+
     @Operation(summary = "Update director details")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Director updated successfully"),
@@ -60,4 +102,16 @@ public class DirectorController {
         directorService.deleteDirectorById(id);
         return ResponseEntity.noContent().build();
     }
+
+    @Operation(summary = "Delete several directors",
+            description = "Deletes the directors and their movies; unknown ids are listed in the response")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deleted ids, unknown ids and the number of movies removed"),
+            @ApiResponse(responseCode = "400", description = "No ids, or more than 1000")
+    })
+    @Idempotent
+    @PostMapping("/_delete")
+    public ResponseEntity<DirectorDeleteResultDto> deleteDirectors(@RequestBody @Valid DirectorDeleteRequestDto request) {
+        return ResponseEntity.ok(directorService.deleteDirectors(request.ids()));
+    }
 }
@@ -6,15 +6,24 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import profit.springrest.config.Idempotent;
 import profit.springrest.dto.movie.*;
+import profit.springrest.service.movie.MovieReportCache;
 import profit.springrest.service.movie.MovieService;
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequiredArgsConstructor
@@ -22,23 +31,29 @@ import java.util.List;
 @Tag(name = "Movies", description = "Movie Management")
 public class MovieController {
 
+    private static final String REPORT_DISPOSITION = "attachment; filename=movies_report.csv";
+
     private final MovieService movieService;
+    private final MovieReportCache movieReportCache;
 
     @Operation(summary = "Get all movies (non-paginated)")
     @GetMapping
-    public ResponseEntity<List<MovieListDto>> findAllMovies() {
-        return ResponseEntity.ok(movieService.findAllMovies());
+    public ResponseEntity<List<MovieListDto>> findAllMovies(WebRequest request) {
+        return ConditionalGet.respond(request, movieService.getMoviesVersionTag(), movieService::findAllMovies);
     }
 
     @Operation(summary = "Get movie details by ID")
     @ApiResponse(responseCode = "404", description = "Movie not found")
+    @ApiResponse(responseCode = "304", description = "Movie unchanged since the ETag in If-None-Match")
     @GetMapping("/{id}")
-    public ResponseEntity<MovieResponseDto> findMovie(@PathVariable Long id) {
-        return ResponseEntity.ok(movieService.findMovieById(id));
+    public ResponseEntity<MovieResponseDto> findMovie(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.respond(request, movieService.getMovieVersionTag(id),
+                () -> movieService.findMovieById(id));
     }
 
     @Operation(summary = "Create a new movie")
     @ApiResponse(responseCode = "201", description = "Movie created successfully")
+    @Idempotent
     @PostMapping
     public ResponseEntity<MovieResponseDto> createMovie(@RequestBody @Valid MovieRequestDto dto) {
         return ResponseEntity.status(HttpStatus.CREATED).body(movieService.createMovie(dto));
@@ -64,23 +79,65 @@ public class MovieController {
         return ResponseEntity.ok(movieService.searchMovies(filter));
     }
 
+    @Operation(summary = "Count movies per genre, release year and director",
+            description = "Facet counts for the filtering criteria in one query; each facet ignores its own filter")
+    @PostMapping("/_facets")
+    public ResponseEntity<MovieFacetsDto> getFacets(@RequestBody MovieFilterRequest filter) {
+        return ResponseEntity.ok(movieService.getFacets(filter));
+    }
+
+    @Operation(summary = "Suggest movie titles",
+            description = "Titles starting with the query, ignoring case and accents, served from memory")
+    @ApiResponse(responseCode = "400", description = "Limit outside 1..50")
+    @GetMapping("/_suggest")
+    public ResponseEntity<List<MovieSuggestionDto>> suggestTitles(@RequestParam String q,
+                                                                  @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(movieService.suggestTitles(q, limit));
+    }
+
     @Operation(summary = "Download CSV report",
-            description = "Generates a CSV file based on filtering criteria")
+            description = "Serves the CSV file for the filtering criteria from the report cache")
     @PostMapping(value = "/_report", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-    public ResponseEntity<byte[]> generateReport(@RequestBody MovieFilterRequest filter) {
-        byte[] content = movieService.generateCsvReport(filter);
+    public ResponseEntity<StreamingResponseBody> generateReport(@RequestBody MovieFilterRequest filter,
+                                                                @RequestHeader HttpHeaders headers) throws IOException {
+        return RangeFileResponse.respond(headers, movieReportCache.get(filter),
+                MediaType.APPLICATION_OCTET_STREAM, REPORT_DISPOSITION);
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=movies_report.csv")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(content);
+    @Operation(summary = "Download CSV report (cacheable)",
+            description = "Same report with the filter in the query string, answering If-None-Match with 304 "
+                    + "and Range with 206")
+    @ApiResponse(responseCode = "304", description = "Report unchanged since the ETag in If-None-Match")
+    @GetMapping(value = "/_report", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> downloadReport(@ParameterObject MovieFilterRequest filter,
+                                                                @RequestHeader HttpHeaders headers,
+                                                                WebRequest request) throws IOException {
+        if (request.checkNotModified(movieService.getMoviesVersionTag())) {
+            return null;
+        }
+        return RangeFileResponse.respond(headers, movieReportCache.get(filter),
+                MediaType.APPLICATION_OCTET_STREAM, REPORT_DISPOSITION);
     }
 
-    @Operation(summary = "Import movies from JSON file")
+    @Operation(summary = "Import movies from JSON file",
+            description = "Queues the file as a background import job and returns the job")
+    @ApiResponse(responseCode = "202", description = "Import job queued")
+    @Idempotent
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ImportResultDto> uploadMovies(
+    public ResponseEntity<ImportJobDto> uploadMovies(
             @Parameter(description = "JSON file containing an array of movies")
             @RequestParam("file") MultipartFile file) {
-        return ResponseEntity.ok(movieService.importMovies(file));
+        ImportJobDto job = movieService.importMovies(file);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{jobId}")
+                .buildAndExpand(job.id())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @Operation(summary = "Get import job progress")
+    @GetMapping("/upload/{jobId}")
+    public ResponseEntity<ImportJobDto> getImportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(movieService.getImportJob(jobId));
     }
 }
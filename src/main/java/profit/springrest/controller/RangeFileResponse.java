@@ -0,0 +1,97 @@
+package profit.springrest.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import profit.springrest.service.movie.CachedReport;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Sends a cached report with {@link java.nio.channels.FileChannel#transferTo} from the channel
+ * opened when the report was looked up. The target wraps the servlet output stream rather than a
+ * socket, so the bytes still pass through a user-space buffer; reading from the already open
+ * channel is what keeps eviction from removing the file mid-response. A single byte range is
+ * answered with 206 and an unsatisfiable one with 416; multiple ranges, or a range whose
+ * {@code If-Range} no longer matches, get the whole file.
+ */
+final class RangeFileResponse {
+    private RangeFileResponse() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> respond(HttpHeaders requestHeaders, CachedReport report,
+                                                         MediaType contentType, String contentDisposition) {
+        String eTag = "\"" + report.version() + "\"";
+        List<HttpRange> ranges = rangesToServe(requestHeaders, eTag);
+
+        ResponseEntity.BodyBuilder response;
+        long start = 0;
+        long length = report.size();
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.getFirst();
+            start = range.getRangeStart(report.size());
+            long end = Math.min(range.getRangeEnd(report.size()), report.size() - 1);
+            if (start >= report.size() || end < start) {
+                close(report);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + report.size())
+                        .build();
+            }
+            length = end - start + 1;
+            response = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes %d-%d/%d".formatted(start, end, report.size()));
+        } else {
+            response = ResponseEntity.ok();
+        }
+
+        long position = start;
+        long count = length;
+        StreamingResponseBody body = out -> {
+            try (report) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long sent = 0;
+                while (sent < count) {
+                    long transferred = report.channel().transferTo(position + sent, count - sent, target);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    sent += transferred;
+                }
+            }
+        };
+        return response
+                .eTag(eTag)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
+                .contentType(contentType)
+                .contentLength(count)
+                .body(body);
+    }
+
+    private static List<HttpRange> rangesToServe(HttpHeaders requestHeaders, String eTag) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(eTag)) {
+            return List.of();
+        }
+        try {
+            List<HttpRange> ranges = requestHeaders.getRange();
+            return ranges.size() == 1 ? ranges : List.of();
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    private static void close(CachedReport report) {
+        try {
+            report.close();
+        } catch (IOException ignored) {
+            // nothing was sent from it
+        }
+    }
+}
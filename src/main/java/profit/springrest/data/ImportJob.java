@@ -0,0 +1,45 @@
+package profit.springrest.data;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Entity
+@Table(name = "import_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = "failures")
+public class ImportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    private String fileName;
+    @Column(nullable = false)
+    private String spoolPath;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportJobStatus status;
+    private long lastRow;
+    private long resumedFromRow;
+    private int rowsSucceeded;
+    private int rowsFailed;
+    private String error;
+    @Column(nullable = false)
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String owner;
+    private Instant leaseExpiresAt;
+    @ElementCollection
+    @CollectionTable(name = "import_job_failures", joinColumns = @JoinColumn(name = "job_id"))
+    @OrderBy("row")
+    private List<ImportJobFailure> failures = new ArrayList<>();
+}
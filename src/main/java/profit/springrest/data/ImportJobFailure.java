@@ -0,0 +1,19 @@
+package profit.springrest.data;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class ImportJobFailure {
+    @Column(name = "row_number")
+    private long row;
+    private String reason;
+}
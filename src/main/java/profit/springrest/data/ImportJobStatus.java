@@ -0,0 +1,5 @@
+package profit.springrest.data;
+
+public enum ImportJobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED
+}
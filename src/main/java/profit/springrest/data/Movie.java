@@ -14,8 +14,11 @@ import lombok.ToString;
 @ToString(exclude = "director")
 public class Movie {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movies_seq")
+    @SequenceGenerator(name = "movies_seq", sequenceName = "movies_seq", allocationSize = 50)
     private Long id;
+    @Version
+    private Long version;
     private String title;
     private int releaseYear;
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,36 @@
+package profit.springrest.dto.director;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last director of a keyset page, encoded as an opaque URL-safe token: its id,
+ * and for name prefix pages, which are ordered by (lower(name), id), its name as well.
+ */
+public record DirectorCursor(
+        long id,
+        String name
+) {
+    public DirectorCursor(long id) {
+        this(id, null);
+    }
+
+    public static DirectorCursor decode(String token) {
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = text.indexOf(':');
+            if (separator < 0) {
+                return new DirectorCursor(Long.parseLong(text));
+            }
+            return new DirectorCursor(Long.parseLong(text.substring(0, separator)), text.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String text = name != null ? id + ":" + name : Long.toString(id);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
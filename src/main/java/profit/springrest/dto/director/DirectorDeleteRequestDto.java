@@ -0,0 +1,14 @@
+package profit.springrest.dto.director;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record DirectorDeleteRequestDto(
+        @NotEmpty(message = "Ids cannot be empty")
+        @Size(max = 1000, message = "At most 1000 directors can be deleted at once")
+        List<@NotNull(message = "Ids cannot contain null") Long> ids
+) {
+}
@@ -0,0 +1,10 @@
+package profit.springrest.dto.director;
+
+import java.util.List;
+
+public record DirectorDeleteResultDto(
+        List<Long> deletedIds,
+        List<Long> notFoundIds,
+        int moviesDeleted
+) {
+}
@@ -0,0 +1,15 @@
+package profit.springrest.dto.director;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record DirectorResolveRequestDto(
+        @NotEmpty(message = "Names cannot be empty")
+        @Size(max = 10000, message = "At most 10000 names can be resolved at once")
+        List<@NotBlank(message = "Name cannot be empty")
+             @Size(min = 2, max = 100, message = "Name must be between 2 and 100 characters") String> names
+) {
+}
@@ -0,0 +1,8 @@
+package profit.springrest.dto.director;
+
+public record DirectorUpsertResultDto(
+        Long id,
+        String name,
+        boolean created
+) {
+}
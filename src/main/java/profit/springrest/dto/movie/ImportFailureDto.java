@@ -0,0 +1,7 @@
+package profit.springrest.dto.movie;
+
+public record ImportFailureDto(
+        long row,
+        String reason
+) {
+}
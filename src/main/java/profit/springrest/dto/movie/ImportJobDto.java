@@ -0,0 +1,25 @@
+package profit.springrest.dto.movie;
+
+import lombok.Builder;
+import profit.springrest.data.ImportJobStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Builder
+public record ImportJobDto(
+        UUID id,
+        String fileName,
+        ImportJobStatus status,
+        long rowsParsed,
+        int rowsSucceeded,
+        int rowsFailed,
+        double rowsPerSecond,
+        List<ImportFailureDto> failures,
+        String error,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt
+) {
+}
@@ -2,9 +2,13 @@ package profit.springrest.dto.movie;
 
 import lombok.Builder;
 
+import java.util.List;
+
 @Builder
 public record ImportResultDto(
         Integer successCount,
-        Integer failedCount
+        Integer failedCount,
+        List<ImportFailureDto> failures,
+        long durationMs
 ) {
 }
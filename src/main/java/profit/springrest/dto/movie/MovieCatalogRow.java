@@ -0,0 +1,15 @@
+package profit.springrest.dto.movie;
+
+import profit.springrest.data.Genres;
+
+/**
+ * The columns of a movie the in-memory catalog keeps.
+ */
+public record MovieCatalogRow(
+        long id,
+        String title,
+        int releaseYear,
+        Genres genre,
+        long directorId
+) {
+}
@@ -0,0 +1,34 @@
+package profit.springrest.dto.movie;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page: the (releaseYear, id) sort key, encoded as an
+ * opaque URL-safe token.
+ */
+public record MovieCursor(
+        int releaseYear,
+        long id
+) {
+    public static MovieCursor after(MovieListDto movie) {
+        return new MovieCursor(movie.releaseYear(), movie.id());
+    }
+
+    public static MovieCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new MovieCursor(Integer.parseInt(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((releaseYear + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,19 @@
+package profit.springrest.dto.movie;
+
+import profit.springrest.data.Genres;
+
+import java.util.List;
+import java.util.Map;
+
+public record MovieFacetsDto(
+        Map<Genres, Long> genres,
+        Map<Integer, Long> releaseYears,
+        List<DirectorCount> directors
+) {
+    public record DirectorCount(
+            Long id,
+            String name,
+            long count
+    ) {
+    }
+}
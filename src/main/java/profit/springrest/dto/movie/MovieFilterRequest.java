@@ -7,6 +7,25 @@ public record MovieFilterRequest(
         Genres genre,
         Integer releaseYear,
         Integer page,
-        Integer size
+        Integer size,
+        PaginationMode pagination,
+        String cursor,
+        String title
 ) {
+    public MovieFilterRequest(Long directorId, Genres genre, Integer releaseYear, Integer page, Integer size) {
+        this(directorId, genre, releaseYear, page, size, null, null, null);
+    }
+
+    public MovieFilterRequest(Long directorId, Genres genre, Integer releaseYear, Integer page, Integer size,
+                              PaginationMode pagination, String cursor) {
+        this(directorId, genre, releaseYear, page, size, pagination, cursor, null);
+    }
+
+    public boolean usesKeyset() {
+        return pagination == PaginationMode.KEYSET || cursor != null;
+    }
+
+    public boolean hasTitle() {
+        return title != null && !title.isBlank();
+    }
 }
@@ -0,0 +1,8 @@
+package profit.springrest.dto.movie;
+
+public record MovieSuggestionDto(
+        Long id,
+        String title,
+        int releaseYear
+) {
+}
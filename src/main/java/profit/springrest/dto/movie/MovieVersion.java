@@ -0,0 +1,14 @@
+package profit.springrest.dto.movie;
+
+/**
+ * Versions of a movie row and of its director row; together they change whenever the
+ * movie's representation does.
+ */
+public record MovieVersion(
+        long movieVersion,
+        long directorVersion
+) {
+    public String tag() {
+        return movieVersion + "-" + directorVersion;
+    }
+}
@@ -1,5 +1,6 @@
 package profit.springrest.dto.movie;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,8 +12,10 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PageResponse<T> {
     private List<T> list;
-    private int totalPages;
-    private long totalElements;
+    private Integer totalPages;
+    private Long totalElements;
+    private String nextCursor;
 }
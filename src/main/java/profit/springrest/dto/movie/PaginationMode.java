@@ -0,0 +1,5 @@
+package profit.springrest.dto.movie;
+
+public enum PaginationMode {
+    OFFSET, KEYSET
+}
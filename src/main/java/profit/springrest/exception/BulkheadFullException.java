@@ -0,0 +1,7 @@
+package profit.springrest.exception;
+
+public class BulkheadFullException extends RuntimeException {
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -16,10 +16,12 @@ public interface DirectorMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "movies", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Director toEntity(DirectorRequestDto dto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "movies", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateEntityFromDto(DirectorRequestDto dto, @MappingTarget Director director);
 
     List<DirectorResponseDto> toDtoList(List<Director> directors);
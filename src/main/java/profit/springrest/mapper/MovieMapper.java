@@ -20,9 +20,11 @@ public interface MovieMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "director", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Movie toEntity(MovieRequestDto dto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "director", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateEntityFromDto(MovieRequestDto dto, @MappingTarget Movie movie);
 }
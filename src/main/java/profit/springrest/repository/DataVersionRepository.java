@@ -0,0 +1,29 @@
+package profit.springrest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reads the per-table change counters in {@code data_versions}, which database triggers bump on
+ * every statement that writes the table. The sum only grows, so it identifies a state of the
+ * table's contents.
+ */
+@Repository
+public class DataVersionRepository {
+    public static final String MOVIES = "movies";
+    public static final String DIRECTORS = "directors";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public long sumVersions(String... tables) {
+        Object result = entityManager.createNativeQuery(
+                        "select coalesce(sum(version), 0) from data_versions where table_name in (:tables)")
+                .setParameter("tables", List.of(tables))
+                .getSingleResult();
+        return ((Number) result).longValue();
+    }
+}
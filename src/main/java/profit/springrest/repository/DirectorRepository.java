@@ -1,10 +1,32 @@
 package profit.springrest.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import profit.springrest.data.Director;
+import profit.springrest.dto.director.DirectorResponseDto;
+
+import java.util.List;
 
 @Repository
-public interface DirectorRepository extends JpaRepository<Director, Long> {
+public interface DirectorRepository extends JpaRepository<Director, Long>, DirectorRepositoryCustom {
+    String NAMES_CACHE_REGION = "director-names";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = NAMES_CACHE_REGION)
+    })
     boolean existsByName(String name);
+
+    @Query("""
+            select new profit.springrest.dto.director.DirectorResponseDto(d.id, d.name)
+            from Director d
+            where d.id > :afterId
+            order by d.id
+            """)
+    List<DirectorResponseDto> findPageAfter(long afterId, Limit limit);
 }
@@ -0,0 +1,43 @@
+package profit.springrest.repository;
+
+import org.springframework.data.domain.Limit;
+import profit.springrest.data.Director;
+import profit.springrest.dto.director.DirectorCursor;
+import profit.springrest.dto.director.DirectorResponseDto;
+import profit.springrest.dto.director.DirectorUpsertResultDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface DirectorRepositoryCustom {
+    /**
+     * Loads directors through the persistence context and the second-level cache, querying the
+     * database only for ids found in neither. Unknown ids are left out of the result.
+     */
+    List<Director> findAllCachedById(Collection<Long> ids);
+
+    /**
+     * Deletes the directors in one native statement and lets the movies foreign key cascade to
+     * their movies, without loading either into the persistence context. Returns the ids of the
+     * removed movies per deleted director; unknown ids are left out. Hibernate sees none of it,
+     * so callers evict cached state and notify listeners themselves.
+     */
+    Map<Long, List<Long>> deleteCascading(Collection<Long> ids);
+
+    /**
+     * Inserts the names that do not exist yet and returns the id of every name, new or existing,
+     * in the order the names were first given. One native {@code INSERT ... ON CONFLICT (name) DO
+     * NOTHING} statement does both, so concurrent calls for the same name cannot fail on the
+     * unique constraint. Like {@link #deleteCascading}, Hibernate sees none of it.
+     */
+    List<DirectorUpsertResultDto> upsertByName(Collection<String> names);
+
+    /**
+     * A keyset page of the directors whose lower-case name starts with {@code prefix} (already
+     * lower-case, matched literally), in (lower(name), id) order, after the cursor's name and id.
+     * Served by a range scan of idx_director_name_lower_prefix, so a page costs the same however
+     * many names match.
+     */
+    List<DirectorResponseDto> findPageByNamePrefixAfter(String prefix, DirectorCursor after, Limit limit);
+}
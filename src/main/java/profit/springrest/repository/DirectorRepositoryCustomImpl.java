@@ -0,0 +1,153 @@
+package profit.springrest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.Session;
+import org.springframework.data.domain.Limit;
+import profit.springrest.data.Director;
+import profit.springrest.dto.director.DirectorCursor;
+import profit.springrest.dto.director.DirectorResponseDto;
+import profit.springrest.dto.director.DirectorUpsertResultDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+public class DirectorRepositoryCustomImpl implements DirectorRepositoryCustom {
+    private static final String LAST_CODE_POINT = Character.toString(Character.MAX_CODE_POINT);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Director> findAllCachedById(Collection<Long> ids) {
+        return entityManager.unwrap(Session.class)
+                .findMultiple(Director.class, List.copyOf(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * The select reads the snapshot taken before the CTE deletes, so it still sees the movies the
+     * cascade removes at the end of the statement.
+     */
+    @Override
+    public Map<Long, List<Long>> deleteCascading(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        List<?> rows = entityManager.createNativeQuery("""
+                        with deleted as (delete from directors where id in (:ids) returning id)
+                        select d.id as director_id, m.id as movie_id
+                        from deleted d
+                        left join movies m on m.director_id = d.id
+                        """)
+                .setParameter("ids", ids)
+                .getResultList();
+
+        Map<Long, List<Long>> movieIds = new LinkedHashMap<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            List<Long> movies = movieIds.computeIfAbsent(((Number) columns[0]).longValue(), id -> new ArrayList<>());
+            if (columns[1] != null) {
+                movies.add(((Number) columns[1]).longValue());
+            }
+        }
+        return movieIds;
+    }
+
+    /**
+     * The names travel as one array parameter, so the statement is the same for one name or
+     * thousands. Only names missing from the snapshot draw an id from directors_seq; each draw
+     * takes a whole pooled block, so the ids never collide with the ones Hibernate hands out.
+     * A name committed by another transaction after the snapshot is skipped by ON CONFLICT but
+     * not visible to the select, so such names are read again by a second statement.
+     */
+    @Override
+    public List<DirectorUpsertResultDto> upsertByName(Collection<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        Set<String> distinct = new LinkedHashSet<>(names);
+        List<?> rows = entityManager.createNativeQuery("""
+                        with input (name) as (select distinct unnest(cast(:names as text[]))),
+                        inserted as (
+                            insert into directors (id, name, version)
+                            select nextval('directors_seq'), i.name, 0
+                            from input i
+                            where not exists (select 1 from directors d where d.name = i.name)
+                            on conflict (name) do nothing
+                            returning id, name)
+                        select id, name, true as created from inserted
+                        union all
+                        select d.id, d.name, false from directors d join input i on i.name = d.name
+                        """)
+                .setParameter("names", distinct.toArray(String[]::new))
+                .getResultList();
+
+        Map<String, DirectorUpsertResultDto> byName = new HashMap<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            String name = (String) columns[1];
+            byName.put(name, new DirectorUpsertResultDto(((Number) columns[0]).longValue(), name, (Boolean) columns[2]));
+        }
+        if (byName.size() < distinct.size()) {
+            List<String> missing = distinct.stream().filter(name -> !byName.containsKey(name)).toList();
+            entityManager.createQuery("select d.id, d.name from Director d where d.name in (:names)", Object[].class)
+                    .setParameter("names", missing)
+                    .getResultList()
+                    .forEach(columns -> byName.put((String) columns[1],
+                            new DirectorUpsertResultDto((Long) columns[0], (String) columns[1], false)));
+        }
+        return distinct.stream().map(byName::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Native, because the index uses text_pattern_ops: its order is the byte order of the ~<~
+     * family, which neither JPQL nor a row comparison (collation order) can ask for. The prefix is
+     * a bind parameter, so the range is spelled out as ~>=~ / ~<~ bounds instead of being left to
+     * the planner to derive from the LIKE pattern, which it only does for literals; that keeps the
+     * range scan in generic plans too. The LIKE then only rechecks the rows within it.
+     */
+    @Override
+    public List<DirectorResponseDto> findPageByNamePrefixAfter(String prefix, DirectorCursor after, Limit limit) {
+        String seek = after != null
+                ? " and lower(name) ~>=~ lower(:afterName) and (lower(name) ~>~ lower(:afterName) or id > :afterId)"
+                : "";
+        Query query = entityManager.createNativeQuery("""
+                        select id, name from directors
+                        where lower(name) like :pattern and lower(name) ~>=~ :start and lower(name) ~<~ :end%s
+                        order by lower(name) using ~<~, id
+                        """.formatted(seek))
+                .setParameter("pattern", LikePatterns.startingWith(prefix))
+                .setParameter("start", prefix)
+                .setParameter("end", upperBound(prefix));
+        if (after != null) {
+            query.setParameter("afterName", after.name())
+                    .setParameter("afterId", after.id());
+        }
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+
+        List<DirectorResponseDto> page = new ArrayList<>();
+        for (Object row : query.getResultList()) {
+            Object[] columns = (Object[]) row;
+            page.add(new DirectorResponseDto(((Number) columns[0]).longValue(), (String) columns[1]));
+        }
+        return page;
+    }
+
+    // Names starting with the prefix sort below it followed by U+10FFFF, a noncharacter no name contains.
+    static String upperBound(String prefix) {
+        return prefix + LAST_CODE_POINT;
+    }
+}
@@ -0,0 +1,114 @@
+package profit.springrest.repository;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import profit.springrest.data.ImportJob;
+import profit.springrest.data.ImportJobStatus;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+    @EntityGraph(attributePaths = "failures")
+    Optional<ImportJob> findWithFailuresById(UUID id);
+
+    /**
+     * Unfinished jobs that no instance holds: their owner's lease has expired, or they never had one.
+     */
+    @Query("""
+            select j from ImportJob j
+            where j.finishedAt is null and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now)
+            order by j.createdAt
+            """)
+    List<ImportJob> findClaimable(Instant now);
+
+    @Query("select size(j.failures) from ImportJob j where j.id = :id")
+    int countFailures(UUID id);
+
+    /**
+     * Takes the lease of an unfinished job that {@code owner} already holds or whose lease has
+     * expired; returns 0 when another instance holds it, so only one instance queues the job.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update ImportJob j
+            set j.owner = :owner, j.leaseExpiresAt = :leaseExpiresAt
+            where j.id = :id and j.finishedAt is null
+              and (j.owner = :owner or j.leaseExpiresAt is null or j.leaseExpiresAt < :now)
+            """)
+    int claim(UUID id, String owner, Instant now, Instant leaseExpiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update ImportJob j
+            set j.leaseExpiresAt = :leaseExpiresAt
+            where j.id in :ids and j.owner = :owner and j.finishedAt is null
+            """)
+    int renewLeases(Collection<UUID> ids, String owner, Instant leaseExpiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update ImportJob j
+            set j.owner = null, j.leaseExpiresAt = null
+            where j.id in :ids and j.owner = :owner
+            """)
+    int releaseLeases(Collection<UUID> ids, String owner);
+
+    /**
+     * Starts or resumes a job still leased to {@code owner}; returns 0 when the lease was lost or
+     * the job has finished meanwhile.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update ImportJob j
+            set j.status = :status, j.startedAt = :startedAt, j.resumedFromRow = j.lastRow,
+                j.leaseExpiresAt = :leaseExpiresAt
+            where j.id = :id and j.owner = :owner and j.finishedAt is null
+            """)
+    int markStarted(UUID id, String owner, ImportJobStatus status, Instant startedAt, Instant leaseExpiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update ImportJob j
+            set j.status = :status, j.error = :error, j.finishedAt = :finishedAt,
+                j.owner = null, j.leaseExpiresAt = null
+            where j.id = :id and j.owner = :owner
+            """)
+    int markFinished(UUID id, String owner, ImportJobStatus status, String error, Instant finishedAt);
+
+    /**
+     * Records progress in the transaction that commits the rows it covers, so a resumed job
+     * neither repeats nor skips a row, and extends the lease. Returns 0 when {@code owner} lost
+     * the lease; the caller must then roll the chunk back, as the new owner resumes from the
+     * previous checkpoint.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query("""
+            update ImportJob j
+            set j.lastRow = :lastRow, j.rowsSucceeded = :succeeded, j.rowsFailed = :failed,
+                j.leaseExpiresAt = :leaseExpiresAt
+            where j.id = :id and j.owner = :owner
+            """)
+    int checkpoint(UUID id, String owner, long lastRow, int succeeded, int failed, Instant leaseExpiresAt);
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query(value = "insert into import_job_failures (job_id, row_number, reason) values (:id, :row, :reason)",
+            nativeQuery = true)
+    void addFailure(UUID id, long row, String reason);
+}
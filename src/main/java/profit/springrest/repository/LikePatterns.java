@@ -0,0 +1,22 @@
+package profit.springrest.repository;
+
+/**
+ * LIKE patterns for user input, with {@code %}, {@code _} and the backslash escape character
+ * itself escaped so they match literally.
+ */
+public final class LikePatterns {
+    private LikePatterns() {
+    }
+
+    public static String startingWith(String text) {
+        return escape(text) + "%";
+    }
+
+    public static String containing(String text) {
+        return "%" + escape(text) + "%";
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,12 +1,55 @@
 package profit.springrest.repository;
 
+import jakarta.persistence.QueryHint;
 import lombok.NonNull;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieCatalogRow;
+import profit.springrest.dto.movie.MovieSuggestionDto;
+import profit.springrest.dto.movie.MovieVersion;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MovieRepository extends JpaRepository<@NonNull Movie, @NonNull Long>,
-        JpaSpecificationExecutor<@NonNull Movie> {
+        JpaSpecificationExecutor<@NonNull Movie>, MovieRepositoryCustom {
+
+    @Query("""
+            select new profit.springrest.dto.movie.MovieCatalogRow(
+                m.id, m.title, m.releaseYear, m.genre, m.director.id)
+            from Movie m
+            order by m.id
+            """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000")
+    })
+    Stream<MovieCatalogRow> streamCatalogRows();
+
+    @Query("""
+            select new profit.springrest.dto.movie.MovieVersion(m.version, d.version)
+            from Movie m join m.director d
+            where m.id = :id
+            """)
+    Optional<MovieVersion> findVersionById(Long id);
+
+    /**
+     * Case-insensitive title prefix match, used until the in-memory title index is loaded.
+     * {@code prefix} is a lower-case {@link LikePatterns#startingWith} pattern.
+     */
+    @Query("""
+            select new profit.springrest.dto.movie.MovieSuggestionDto(m.id, m.title, m.releaseYear)
+            from Movie m
+            where lower(m.title) like :prefix escape '\\'
+            order by lower(m.title), m.id
+            """)
+    List<MovieSuggestionDto> findSuggestions(String prefix, Limit limit);
 }
@@ -0,0 +1,49 @@
+package profit.springrest.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieCursor;
+import profit.springrest.dto.movie.MovieFacetsDto;
+import profit.springrest.dto.movie.MovieListDto;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Read queries, ordered by (releaseYear, id), that build {@link MovieListDto} rows directly in a single SELECT joined with the
+ * director, so no {@link Movie} entities are loaded into the persistence context. A specification that sets its own
+ * ordering ({@link MovieSpecification#hasTitle}) replaces the default one.
+ */
+public interface MovieRepositoryCustom {
+    List<MovieListDto> findListDtos(Specification<Movie> spec);
+
+    List<MovieListDto> findListDtos(Specification<Movie> spec, Pageable pageable);
+
+    /**
+     * Seeks past {@code after} in (releaseYear, id) order instead of skipping an offset, so every
+     * page costs the same. No count query is issued. Not for specifications that reorder rows.
+     */
+    List<MovieListDto> findListDtosAfter(Specification<Movie> spec, MovieCursor after, int limit);
+
+    /**
+     * Streams matching movies as list rows over a forward-only cursor. The stream must be
+     * consumed (and closed) inside a read-only transaction.
+     */
+    Stream<MovieListDto> streamListDtos(Specification<Movie> spec);
+
+    /**
+     * Number of movies matching the filter, summed from the trigger-maintained
+     * movie_filter_counts buckets instead of counting movie rows.
+     */
+    long countFromBuckets(Genres genre, Integer releaseYear, Long directorId);
+
+    /**
+     * Per-genre, per-year and per-director counts in one grouping-sets query. Each facet is
+     * counted with every filter except its own, so the other values of an active filter keep
+     * their counts. Without a title the counts come from the movie_filter_counts buckets;
+     * with one, from the movies it matches (see {@link MovieSpecification#hasTitle}).
+     */
+    MovieFacetsDto countFacets(Genres genre, Integer releaseYear, Long directorId, String title);
+}
@@ -0,0 +1,186 @@
+package profit.springrest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import profit.springrest.data.Director;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieCursor;
+import profit.springrest.dto.movie.MovieFacetsDto;
+import profit.springrest.dto.movie.MovieListDto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class MovieRepositoryCustomImpl implements MovieRepositoryCustom {
+    private static final int REPORT_FETCH_SIZE = 1000;
+    // grouping(genre, release_year, director_id) of each facet's grouping set
+    private static final int GENRE_FACET = 0b011;
+    private static final int YEAR_FACET = 0b101;
+    private static final int DIRECTOR_FACET = 0b110;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<MovieListDto> findListDtos(Specification<Movie> spec) {
+        return listDtoQuery(spec).getResultList();
+    }
+
+    @Override
+    public List<MovieListDto> findListDtos(Specification<Movie> spec, Pageable pageable) {
+        return listDtoQuery(spec)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public List<MovieListDto> findListDtosAfter(Specification<Movie> spec, MovieCursor after, int limit) {
+        Specification<Movie> seek = spec;
+        if (after != null) {
+            seek = spec == null ? isAfter(after) : spec.and(isAfter(after));
+        }
+        return listDtoQuery(seek)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<MovieListDto> streamListDtos(Specification<Movie> spec) {
+        return listDtoQuery(spec)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, REPORT_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private TypedQuery<MovieListDto> listDtoQuery(Specification<Movie> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MovieListDto> query = cb.createQuery(MovieListDto.class);
+        Root<Movie> root = query.from(Movie.class);
+        Join<Movie, Director> director = root.join("director");
+
+        query.select(cb.construct(MovieListDto.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("releaseYear"),
+                root.get("genre"),
+                director.get("name")));
+        applySpecification(spec, root, query, cb);
+        if (query.getOrderList().isEmpty()) {
+            query.orderBy(cb.asc(root.get("releaseYear")), cb.asc(root.get("id")));
+        }
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    @Override
+    public long countFromBuckets(Genres genre, Integer releaseYear, Long directorId) {
+        StringBuilder sql = new StringBuilder("select coalesce(sum(movie_count), 0) from movie_filter_counts where true");
+        if (genre != null) sql.append(" and genre = :genre");
+        if (releaseYear != null) sql.append(" and release_year = :releaseYear");
+        if (directorId != null) sql.append(" and director_id = :directorId");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        if (genre != null) query.setParameter("genre", genre.name());
+        if (releaseYear != null) query.setParameter("releaseYear", releaseYear);
+        if (directorId != null) query.setParameter("directorId", directorId);
+
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    /**
+     * Rows that fail at most one filter feed the facet of that filter; the FILTER clauses then
+     * drop, per facet, the rows that fail any other filter.
+     */
+    @Override
+    public MovieFacetsDto countFacets(Genres genre, Integer releaseYear, Long directorId, String title) {
+        String term = MovieSpecification.titleTerm(title);
+        boolean byTitle = term != null;
+        String source = byTitle
+                ? "(select genre, release_year, director_id, 1 as movie_count from movies"
+                + " where title ilike :pattern or :term <% title)"
+                : "movie_filter_counts";
+        String genreMatch = genre != null ? "genre = :genre" : "true";
+        String yearMatch = releaseYear != null ? "release_year = :releaseYear" : "true";
+        String directorMatch = directorId != null ? "director_id = :directorId" : "true";
+        String sql = """
+                select f.facet, f.genre, f.release_year, f.director_id, d.name, f.movie_count
+                from (
+                    select grouping(genre, release_year, director_id) as facet, genre, release_year, director_id,
+                           case grouping(genre, release_year, director_id)
+                               when %1$d then sum(movie_count) filter (where %5$s and %6$s)
+                               when %2$d then sum(movie_count) filter (where %4$s and %6$s)
+                               when %3$d then sum(movie_count) filter (where %4$s and %5$s)
+                           end as movie_count
+                    from %7$s s
+                    where (%4$s and %5$s) or (%4$s and %6$s) or (%5$s and %6$s)
+                    group by grouping sets ((genre), (release_year), (director_id))
+                ) f
+                left join directors d on d.id = f.director_id
+                where f.movie_count > 0
+                order by f.facet, f.movie_count desc, f.genre, f.release_year, f.director_id
+                """.formatted(GENRE_FACET, YEAR_FACET, DIRECTOR_FACET, genreMatch, yearMatch, directorMatch, source);
+
+        Query query = entityManager.createNativeQuery(sql);
+        if (genre != null) query.setParameter("genre", genre.name());
+        if (releaseYear != null) query.setParameter("releaseYear", releaseYear);
+        if (directorId != null) query.setParameter("directorId", directorId);
+        if (byTitle) {
+            query.setParameter("pattern", LikePatterns.containing(term));
+            query.setParameter("term", term);
+        }
+
+        Map<Genres, Long> genres = new LinkedHashMap<>();
+        Map<Integer, Long> releaseYears = new LinkedHashMap<>();
+        List<MovieFacetsDto.DirectorCount> directors = new ArrayList<>();
+        for (Object row : query.getResultList()) {
+            Object[] columns = (Object[]) row;
+            long count = ((Number) columns[5]).longValue();
+            switch (((Number) columns[0]).intValue()) {
+                case GENRE_FACET -> genres.put(Genres.valueOf((String) columns[1]), count);
+                case YEAR_FACET -> releaseYears.put(((Number) columns[2]).intValue(), count);
+                case DIRECTOR_FACET -> directors.add(new MovieFacetsDto.DirectorCount(
+                        ((Number) columns[3]).longValue(), (String) columns[4], count));
+                default -> throw new IllegalStateException("Unexpected facet " + columns[0]);
+            }
+        }
+        return new MovieFacetsDto(genres, releaseYears, directors);
+    }
+
+    /**
+     * (releaseYear, id) > (cursor.releaseYear, cursor.id), with a redundant lower bound on the
+     * year so the planner can start an index range scan at the cursor.
+     */
+    private static Specification<Movie> isAfter(MovieCursor cursor) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.<Integer>get("releaseYear"), cursor.releaseYear()),
+                cb.or(
+                        cb.greaterThan(root.<Integer>get("releaseYear"), cursor.releaseYear()),
+                        cb.greaterThan(root.<Long>get("id"), cursor.id())));
+    }
+
+    private static void applySpecification(Specification<Movie> spec, Root<Movie> root,
+                                           CriteriaQuery<?> query, CriteriaBuilder cb) {
+        if (spec == null) {
+            return;
+        }
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
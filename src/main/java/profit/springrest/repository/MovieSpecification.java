@@ -1,10 +1,25 @@
 package profit.springrest.repository;
 
+import jakarta.persistence.criteria.Expression;
 import org.springframework.data.jpa.domain.Specification;
 import profit.springrest.data.Genres;
 import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieFilterRequest;
+
+import static profit.springrest.config.TrigramFunctionContributor.TITLE_MATCHES;
+import static profit.springrest.config.TrigramFunctionContributor.TITLE_RELEVANCE;
 
 public class MovieSpecification {
+    /** Shorter terms have no trigrams, so the trigram index could not narrow the search down. */
+    public static final int MIN_TITLE_LENGTH = 3;
+
+    public static Specification<Movie> fromFilter(MovieFilterRequest filter) {
+        return Specification.where(hasGenre(filter.genre()))
+                .and(hasReleaseYear(filter.releaseYear()))
+                .and(hasDirectorId(filter.directorId()))
+                .and(hasTitle(filter.title()));
+    }
+
     public static Specification<Movie> hasGenre(Genres genre) {
         return (root, query, cb) -> {
             if (genre == null) return null;
@@ -25,4 +40,37 @@ public class MovieSpecification {
             return cb.equal(root.get("director").get("id"), directorId);
         };
     }
+
+    /**
+     * Titles containing {@code title} or similar to it word by word (tolerating typos), served by
+     * the trigram index. Overrides the list ordering: most relevant first, then (releaseYear, id).
+     *
+     * @throws IllegalArgumentException if the title is shorter than {@link #MIN_TITLE_LENGTH}
+     */
+    public static Specification<Movie> hasTitle(String title) {
+        String term = titleTerm(title);
+        return (root, query, cb) -> {
+            if (term == null) return null;
+            Expression<String> column = root.get("title");
+            query.orderBy(
+                    cb.desc(cb.function(TITLE_RELEVANCE, Float.class, column, cb.literal(term))),
+                    cb.asc(root.get("releaseYear")),
+                    cb.asc(root.get("id")));
+            return cb.isTrue(cb.function(TITLE_MATCHES, Boolean.class, column, cb.literal(LikePatterns.containing(term)), cb.literal(term)));
+        };
+    }
+
+    /**
+     * The stripped search term, or {@code null} when no title is given.
+     *
+     * @throws IllegalArgumentException if the term is shorter than {@link #MIN_TITLE_LENGTH}
+     */
+    public static String titleTerm(String title) {
+        if (title == null || title.isBlank()) return null;
+        String term = title.strip();
+        if (term.length() < MIN_TITLE_LENGTH) {
+            throw new IllegalArgumentException("Title search needs at least " + MIN_TITLE_LENGTH + " characters");
+        }
+        return term;
+    }
 }
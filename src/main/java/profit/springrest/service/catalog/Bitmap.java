@@ -0,0 +1,71 @@
+package profit.springrest.service.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Growable bitmap over catalog slots that keeps its own cardinality and can count an
+ * intersection without allocating, which {@link java.util.BitSet} cannot.
+ */
+final class Bitmap {
+    private long[] words = new long[1];
+    private int cardinality;
+
+    void set(int slot) {
+        int word = slot >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        long mask = 1L << slot;
+        if ((words[word] & mask) == 0) {
+            words[word] |= mask;
+            cardinality++;
+        }
+    }
+
+    void clear(int slot) {
+        int word = slot >>> 6;
+        long mask = 1L << slot;
+        if (word < words.length && (words[word] & mask) != 0) {
+            words[word] &= ~mask;
+            cardinality--;
+        }
+    }
+
+    boolean get(int slot) {
+        int word = slot >>> 6;
+        return word < words.length && (words[word] & (1L << slot)) != 0;
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    int andCardinality(Bitmap other) {
+        int count = 0;
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the first set slot at or after {@code from}, or -1 if there is none.
+     */
+    int nextSetBit(int from) {
+        int word = from >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+        long bits = words[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+}
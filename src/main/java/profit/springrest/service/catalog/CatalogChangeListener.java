@@ -0,0 +1,20 @@
+package profit.springrest.service.catalog;
+
+import profit.springrest.data.Director;
+import profit.springrest.data.Movie;
+
+/**
+ * Receives movie and director changes after the transaction that made them has committed.
+ * Implementations are picked up by {@link CatalogEventBridge}.
+ */
+public interface CatalogChangeListener {
+    void movieSaved(Movie movie);
+
+    void movieDeleted(long id);
+
+    default void directorSaved(Director director) {
+    }
+
+    default void directorDeleted(long id) {
+    }
+}
@@ -0,0 +1,141 @@
+package profit.springrest.service.catalog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import profit.springrest.data.Director;
+import profit.springrest.data.Movie;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Registers Hibernate post-commit listeners for {@link Movie} and {@link Director} and forwards
+ * each committed change to every {@link CatalogChangeListener} bean. Bulk JPQL and native
+ * statements do not raise these events; changes made that way go through {@link #insertedInBulk}
+ * and {@link #deletedInBulk}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogEventBridge implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<CatalogChangeListener> listenerProvider;
+
+    private List<CatalogChangeListener> listeners = List.of();
+
+    @PostConstruct
+    void register() {
+        listeners = listenerProvider.orderedStream().toList();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        saved(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        saved(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        long id = ((Number) event.getId()).longValue();
+        if (event.getEntity() instanceof Movie) {
+            dispatch(listener -> listener.movieDeleted(id));
+        } else if (event.getEntity() instanceof Director) {
+            dispatch(listener -> listener.directorDeleted(id));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        return type == Movie.class || type == Director.class;
+    }
+
+    /**
+     * Forwards directors inserted by native statements, which raise no Hibernate events, once the
+     * current transaction has committed.
+     */
+    public void insertedInBulk(Collection<Director> directors) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                directors.forEach(director -> dispatch(listener -> listener.directorSaved(director)));
+            }
+        });
+    }
+
+    /**
+     * Forwards deletions made by native statements, which raise no Hibernate events, once the
+     * current transaction has committed.
+     */
+    public void deletedInBulk(Collection<Long> directorIds, Collection<Long> movieIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                movieIds.forEach(id -> dispatch(listener -> listener.movieDeleted(id)));
+                directorIds.forEach(id -> dispatch(listener -> listener.directorDeleted(id)));
+            }
+        });
+    }
+
+    private void saved(Object entity) {
+        if (entity instanceof Movie movie) {
+            dispatch(listener -> listener.movieSaved(movie));
+        } else if (entity instanceof Director director) {
+            dispatch(listener -> listener.directorSaved(director));
+        }
+    }
+
+    // The data is already committed, so a failing listener must not surface to the caller.
+    private void dispatch(Consumer<CatalogChangeListener> change) {
+        for (CatalogChangeListener listener : listeners) {
+            try {
+                change.accept(listener);
+            } catch (RuntimeException e) {
+                log.error("Catalog listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,558 @@
+package profit.springrest.service.catalog;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import profit.springrest.data.Director;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieCatalogRow;
+import profit.springrest.dto.movie.MovieCursor;
+import profit.springrest.dto.movie.MovieFilterRequest;
+import profit.springrest.dto.movie.MovieListDto;
+import profit.springrest.repository.DirectorRepository;
+import profit.springrest.repository.MovieRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-process read model of the movie catalog, enabled with {@code movie.catalog.enabled=true}.
+ * <p>
+ * Movies are stored column by column in primitive arrays, one slot per movie with slots kept in
+ * id order, plus a bitmap per genre and per release year and a slot list per director. That comes
+ * to a few tens of bytes per movie besides the (interned) title strings. Changes arrive in commit
+ * order rather than id order (concurrent sessions and import workers draw ids from different
+ * pooled blocks), so ids below the last one are appended to an unordered tail that searches merge
+ * in, and are sorted into place when the columns are next compacted. The catalog is loaded once the application
+ * is ready and then follows committed changes through {@link CatalogEventBridge}; until the first
+ * load completes {@link #isReady()} is false and searches go to the database.
+ */
+@Component
+@ConditionalOnProperty(prefix = "movie.catalog", name = "enabled", havingValue = "true")
+public class MovieCatalog implements CatalogChangeListener {
+    private static final Genres[] GENRES = Genres.values();
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+    private static final int MIN_UNORDERED_TO_COMPACT = 1024;
+    private static final long[] NO_IDS = new long[0];
+
+    private final MovieRepository movieRepository;
+    private final DirectorRepository directorRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile Columns columns;
+    // Changes committed while a rebuild is loading, replayed onto the loaded columns.
+    private List<Consumer<Columns>> pending;
+
+    public MovieCatalog(MovieRepository movieRepository, DirectorRepository directorRepository,
+                        PlatformTransactionManager transactionManager) {
+        this.movieRepository = movieRepository;
+        this.directorRepository = directorRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return columns != null;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns == null ? 0 : columns.live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * How many times the loaded columns were rebuilt to drop deleted movies and sort in
+     * out-of-order ids.
+     */
+    public int compactions() {
+        lock.readLock().lock();
+        try {
+            return columns == null ? 0 : columns.compactions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} matches in (releaseYear, id) order, starting after the cursor
+     * (if any) and skipping {@code offset} matches, together with the total number of matches.
+     */
+    public CatalogPage search(MovieFilterRequest filter, MovieCursor after, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            if (columns == null) {
+                throw new IllegalStateException("Movie catalog is not loaded");
+            }
+            return filter.directorId() != null
+                    ? columns.searchDirector(filter, after, offset, limit)
+                    : columns.searchYears(filter, after, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        writeLocked(() -> pending = new ArrayList<>());
+        Columns loaded;
+        try {
+            loaded = readOnlyTransaction.execute(status -> load());
+        } catch (RuntimeException e) {
+            writeLocked(() -> pending = null);
+            throw e;
+        }
+        writeLocked(() -> {
+            pending.forEach(change -> change.accept(loaded));
+            pending = null;
+            columns = loaded;
+        });
+    }
+
+    @Override
+    public void movieSaved(Movie movie) {
+        MovieCatalogRow row = new MovieCatalogRow(movie.getId(), movie.getTitle(), movie.getReleaseYear(),
+                movie.getGenre(), movie.getDirector().getId());
+        apply(catalog -> catalog.upsert(row));
+    }
+
+    @Override
+    public void movieDeleted(long id) {
+        apply(catalog -> catalog.remove(id));
+    }
+
+    @Override
+    public void directorSaved(Director director) {
+        long id = director.getId();
+        String name = director.getName();
+        apply(catalog -> catalog.directorNames.put(id, name));
+    }
+
+    @Override
+    public void directorDeleted(long id) {
+        apply(catalog -> catalog.directorNames.remove(id));
+    }
+
+    private Columns load() {
+        Columns loaded = new Columns(INITIAL_CAPACITY);
+        for (Director director : directorRepository.findAll()) {
+            loaded.directorNames.put(director.getId(), director.getName());
+        }
+        try (Stream<MovieCatalogRow> rows = movieRepository.streamCatalogRows()) {
+            rows.forEach(loaded::upsert);
+        }
+        return loaded;
+    }
+
+    private void apply(Consumer<Columns> change) {
+        writeLocked(() -> {
+            if (columns != null) {
+                change.accept(columns);
+            }
+            if (pending != null) {
+                pending.add(change);
+            }
+        });
+    }
+
+    private void writeLocked(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public record CatalogPage(List<MovieListDto> rows, long total) {
+    }
+
+    private static final class Columns {
+        private final Map<Long, String> directorNames = new HashMap<>();
+        private int size;
+        // slots below this are in id order; the ones above are listed in unordered
+        private int ordered;
+        private int tombstones;
+        private int compactions;
+        private long[] ids;
+        private int[] years;
+        private byte[] genres;
+        private long[] directorIds;
+        private String[] titles;
+        private Bitmap live;
+        private Bitmap[] genreIndex;
+        private NavigableMap<Integer, Bitmap> yearIndex;
+        private Map<Long, SlotList> directorIndex;
+        private Map<Long, Integer> unordered;
+
+        private Columns(int capacity) {
+            reset(capacity);
+        }
+
+        private void reset(int capacity) {
+            size = 0;
+            ordered = 0;
+            tombstones = 0;
+            ids = new long[capacity];
+            years = new int[capacity];
+            genres = new byte[capacity];
+            directorIds = new long[capacity];
+            titles = new String[capacity];
+            live = new Bitmap();
+            genreIndex = new Bitmap[GENRES.length];
+            Arrays.setAll(genreIndex, i -> new Bitmap());
+            yearIndex = new TreeMap<>();
+            directorIndex = new HashMap<>();
+            unordered = new HashMap<>();
+        }
+
+        private void upsert(MovieCatalogRow row) {
+            int slot = slotOf(row.id());
+            if (slot >= 0) {
+                if (live.get(slot)) {
+                    unindex(slot);
+                } else {
+                    tombstones--;
+                }
+                index(slot, row);
+                return;
+            }
+
+            if (size == ids.length) {
+                grow();
+            }
+            slot = size++;
+            ids[slot] = row.id();
+            if (slot == ordered && (slot == 0 || row.id() > ids[slot - 1])) {
+                ordered++;
+            } else {
+                unordered.put(row.id(), slot);
+            }
+            index(slot, row);
+            compactIfDue();
+        }
+
+        private void remove(long id) {
+            int slot = slotOf(id);
+            if (slot < 0 || !live.get(slot)) {
+                return;
+            }
+            unindex(slot);
+            tombstones++;
+            compactIfDue();
+        }
+
+        // Both thresholds grow with the catalog, so a rebuild is paid for by that many changes.
+        private void compactIfDue() {
+            int liveSlots = live.cardinality();
+            if (tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones > liveSlots / 4
+                    || unordered.size() >= MIN_UNORDERED_TO_COMPACT && unordered.size() > liveSlots / 8) {
+                compact();
+            }
+        }
+
+        // The director's slots are kept in (releaseYear, id) order, so a page reads only its rows.
+        private CatalogPage searchDirector(MovieFilterRequest filter, MovieCursor after, long offset, int limit) {
+            SlotList slots = directorIndex.get(filter.directorId());
+            if (slots == null) {
+                return new CatalogPage(List.of(), 0);
+            }
+            Integer year = filter.releaseYear();
+            int from = after != null ? slots.firstAfter(after.releaseYear(), after.id(), this) : 0;
+            if (year != null) {
+                from = Math.max(from, slots.firstAfter(year, Long.MIN_VALUE, this));
+            }
+
+            List<MovieListDto> rows = new ArrayList<>(Math.min(limit, slots.size));
+            long skip = offset;
+            for (int i = from; i < slots.size && rows.size() < limit; i++) {
+                int slot = slots.slots[i];
+                if (year != null && years[slot] > year) {
+                    break;
+                }
+                if (!matches(filter, slot)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                rows.add(toDto(slot));
+            }
+            return new CatalogPage(rows, count(filter, slots));
+        }
+
+        private long count(MovieFilterRequest filter, SlotList slots) {
+            if (filter.genre() == null && filter.releaseYear() == null) {
+                return slots.size;
+            }
+            long count = 0;
+            for (int i = 0; i < slots.size; i++) {
+                if (matches(filter, slots.slots[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private boolean matches(MovieFilterRequest filter, int slot) {
+            return (filter.genre() == null || genres[slot] == filter.genre().ordinal())
+                    && (filter.releaseYear() == null || years[slot] == filter.releaseYear());
+        }
+
+        // Orders slots by (releaseYear, id), as search results are.
+        private int compare(int slot, int other) {
+            int byYear = Integer.compare(years[slot], years[other]);
+            return byYear != 0 ? byYear : Long.compare(ids[slot], ids[other]);
+        }
+
+        private CatalogPage searchYears(MovieFilterRequest filter, MovieCursor after, long offset, int limit) {
+            Bitmap genre = filter.genre() != null ? genreIndex[filter.genre().ordinal()] : null;
+            int genreOrdinal = filter.genre() != null ? filter.genre().ordinal() : -1;
+            NavigableMap<Integer, Bitmap> candidates;
+            if (filter.releaseYear() != null) {
+                candidates = yearIndex.subMap(filter.releaseYear(), true, filter.releaseYear(), true);
+            } else if (after != null) {
+                candidates = yearIndex.tailMap(after.releaseYear(), true);
+            } else {
+                candidates = yearIndex;
+            }
+
+            List<MovieListDto> rows = new ArrayList<>(limit);
+            long skip = offset;
+            for (Map.Entry<Integer, Bitmap> entry : candidates.entrySet()) {
+                int year = entry.getKey();
+                Bitmap yearSlots = entry.getValue();
+                if (after != null && year < after.releaseYear()) {
+                    continue;
+                }
+                if (skip > 0) {
+                    int matches = genre != null ? yearSlots.andCardinality(genre) : yearSlots.cardinality();
+                    if (skip >= matches) {
+                        skip -= matches;
+                        continue;
+                    }
+                }
+
+                boolean resume = after != null && year == after.releaseYear();
+                long[] tail = unorderedIds(yearSlots, genreOrdinal, resume ? after.id() : Long.MIN_VALUE);
+                int next = 0;
+                int slot = nextOrdered(yearSlots, resume ? firstSlotAfter(after.id()) : 0, genreOrdinal);
+                while (rows.size() < limit && (slot >= 0 || next < tail.length)) {
+                    int match;
+                    if (slot >= 0 && (next == tail.length || ids[slot] < tail[next])) {
+                        match = slot;
+                        slot = nextOrdered(yearSlots, slot + 1, genreOrdinal);
+                    } else {
+                        match = unordered.get(tail[next++]);
+                    }
+                    if (skip > 0) {
+                        skip--;
+                        continue;
+                    }
+                    rows.add(toDto(match));
+                }
+                if (rows.size() == limit) {
+                    break;
+                }
+            }
+            return new CatalogPage(rows, total(filter, genre));
+        }
+
+        // Next slot of the ordered part in the bitmap, from the given slot on, of the genre if any.
+        private int nextOrdered(Bitmap slots, int from, int genreOrdinal) {
+            for (int slot = slots.nextSetBit(from); slot >= 0 && slot < ordered; slot = slots.nextSetBit(slot + 1)) {
+                if (genreOrdinal < 0 || genres[slot] == genreOrdinal) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        // Sorted ids of the unordered slots in the bitmap above afterId, of the genre if any.
+        private long[] unorderedIds(Bitmap slots, int genreOrdinal, long afterId) {
+            if (unordered.isEmpty()) {
+                return NO_IDS;
+            }
+            long[] found = new long[16];
+            int count = 0;
+            for (int slot = slots.nextSetBit(ordered); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+                if ((genreOrdinal < 0 || genres[slot] == genreOrdinal) && ids[slot] > afterId) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = ids[slot];
+                }
+            }
+            found = Arrays.copyOf(found, count);
+            Arrays.sort(found);
+            return found;
+        }
+
+        private long total(MovieFilterRequest filter, Bitmap genre) {
+            if (filter.releaseYear() == null) {
+                return genre != null ? genre.cardinality() : live.cardinality();
+            }
+            Bitmap yearSlots = yearIndex.get(filter.releaseYear());
+            if (yearSlots == null) {
+                return 0;
+            }
+            return genre != null ? yearSlots.andCardinality(genre) : yearSlots.cardinality();
+        }
+
+        private MovieListDto toDto(int slot) {
+            return new MovieListDto(ids[slot], titles[slot], years[slot], GENRES[genres[slot]],
+                    directorNames.get(directorIds[slot]));
+        }
+
+        private void index(int slot, MovieCatalogRow row) {
+            years[slot] = row.releaseYear();
+            genres[slot] = (byte) row.genre().ordinal();
+            directorIds[slot] = row.directorId();
+            titles[slot] = row.title() != null ? row.title().intern() : null;
+            live.set(slot);
+            genreIndex[genres[slot]].set(slot);
+            yearIndex.computeIfAbsent(row.releaseYear(), year -> new Bitmap()).set(slot);
+            directorIndex.computeIfAbsent(row.directorId(), id -> new SlotList()).add(slot, this);
+        }
+
+        private void unindex(int slot) {
+            live.clear(slot);
+            genreIndex[genres[slot]].clear(slot);
+            Bitmap yearSlots = yearIndex.get(years[slot]);
+            yearSlots.clear(slot);
+            if (yearSlots.cardinality() == 0) {
+                yearIndex.remove(years[slot]);
+            }
+            SlotList directorSlots = directorIndex.get(directorIds[slot]);
+            directorSlots.remove(slot, this);
+            if (directorSlots.size == 0) {
+                directorIndex.remove(directorIds[slot]);
+            }
+            titles[slot] = null;
+        }
+
+        // Rebuilds the columns from the live slots in id order, dropping tombstones and sorting
+        // the unordered tail in.
+        private void compact() {
+            List<MovieCatalogRow> rows = new ArrayList<>(live.cardinality());
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                rows.add(new MovieCatalogRow(ids[slot], titles[slot], years[slot], GENRES[genres[slot]],
+                        directorIds[slot]));
+            }
+            rows.sort(Comparator.comparingLong(MovieCatalogRow::id));
+
+            reset(Math.max(INITIAL_CAPACITY, rows.size() + rows.size() / 2));
+            for (MovieCatalogRow row : rows) {
+                ids[size] = row.id();
+                index(size++, row);
+            }
+            ordered = size;
+            compactions++;
+        }
+
+        private void grow() {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            years = Arrays.copyOf(years, capacity);
+            genres = Arrays.copyOf(genres, capacity);
+            directorIds = Arrays.copyOf(directorIds, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+        }
+
+        private int slotOf(long id) {
+            int slot = Arrays.binarySearch(ids, 0, ordered, id);
+            if (slot >= 0) {
+                return slot;
+            }
+            Integer unorderedSlot = unordered.get(id);
+            return unorderedSlot != null ? unorderedSlot : -1;
+        }
+
+        // First slot of the ordered part with a greater id.
+        private int firstSlotAfter(long id) {
+            int slot = Arrays.binarySearch(ids, 0, ordered, id);
+            return slot >= 0 ? slot + 1 : -slot - 1;
+        }
+    }
+
+    /**
+     * Slots of one director in (releaseYear, id) order. Most directors have few movies, so a short
+     * int array is far smaller than a bitmap spanning the whole catalog. Slots are positioned by
+     * the year and id stored in their columns, so a slot is removed before its year changes.
+     */
+    private static final class SlotList {
+        private int[] slots = new int[4];
+        private int size;
+
+        private void add(int slot, Columns columns) {
+            int at = position(slot, columns);
+            if (at < size && slots[at] == slot) {
+                return;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, at, slots, at + 1, size - at);
+            slots[at] = slot;
+            size++;
+        }
+
+        private void remove(int slot, Columns columns) {
+            int at = position(slot, columns);
+            if (at < size && slots[at] == slot) {
+                System.arraycopy(slots, at + 1, slots, at, size - at - 1);
+                size--;
+            }
+        }
+
+        // Index of the first slot that does not sort before the given one.
+        private int position(int slot, Columns columns) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (columns.compare(slots[middle], slot) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // Index of the first slot after (year, id).
+        private int firstAfter(int year, long id, Columns columns) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int slot = slots[middle];
+                if (columns.years[slot] < year || columns.years[slot] == year && columns.ids[slot] <= id) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
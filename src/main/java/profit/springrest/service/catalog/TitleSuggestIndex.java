@@ -0,0 +1,161 @@
+package profit.springrest.service.catalog;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieCatalogRow;
+import profit.springrest.dto.movie.MovieSuggestionDto;
+import profit.springrest.repository.MovieRepository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Title prefix index for autocomplete. Titles are folded to lower case without accents and kept
+ * in a sorted skip list keyed by folded title and id, so a prefix lookup is a seek plus a walk
+ * over at most {@code limit} entries, and readers never block. The index is loaded once the
+ * application is ready and then follows committed changes through {@link CatalogEventBridge};
+ * until the first load completes {@link #isReady()} is false.
+ */
+@Component
+public class TitleSuggestIndex implements CatalogChangeListener {
+    private static final Pattern MARKS = Pattern.compile("[\\p{M}\\p{Cf}]+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    // Sorts after any character a folded title contains, so prefix + KEY_END bounds the prefix range.
+    private static final char KEY_END = '\uffff';
+    private static final char ID_SEPARATOR = '\u0000';
+
+    private final MovieRepository movieRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Titles titles;
+    // Changes committed while a rebuild is loading, replayed onto the loaded titles.
+    private List<Consumer<Titles>> pending;
+
+    public TitleSuggestIndex(MovieRepository movieRepository, PlatformTransactionManager transactionManager) {
+        this.movieRepository = movieRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Lower case, accents and other combining marks removed, as are invisible format characters
+     * such as zero-width spaces; runs of whitespace collapsed.
+     */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String unmarked = MARKS.matcher(decomposed).replaceAll("");
+        return SPACES.matcher(unmarked.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isReady() {
+        return titles != null;
+    }
+
+    /**
+     * Up to {@code limit} movies whose folded title starts with the folded query, in folded title
+     * order. A query that folds to nothing matches nothing.
+     */
+    public List<MovieSuggestionDto> suggest(String query, int limit) {
+        Titles current = titles;
+        if (current == null) {
+            throw new IllegalStateException("Title index is not loaded");
+        }
+        String prefix = fold(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        List<MovieSuggestionDto> result = new ArrayList<>(limit);
+        for (MovieSuggestionDto suggestion : current.sorted.subMap(prefix, prefix + KEY_END).values()) {
+            result.add(suggestion);
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        Titles loaded;
+        try {
+            loaded = readOnlyTransaction.execute(status -> load());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            pending.forEach(change -> change.accept(loaded));
+            pending = null;
+            titles = loaded;
+        }
+    }
+
+    @Override
+    public void movieSaved(Movie movie) {
+        MovieSuggestionDto suggestion = new MovieSuggestionDto(movie.getId(), movie.getTitle(), movie.getReleaseYear());
+        apply(current -> current.upsert(suggestion));
+    }
+
+    @Override
+    public void movieDeleted(long id) {
+        apply(current -> current.remove(id));
+    }
+
+    private Titles load() {
+        Titles loaded = new Titles();
+        try (Stream<MovieCatalogRow> rows = movieRepository.streamCatalogRows()) {
+            rows.forEach(row -> loaded.upsert(new MovieSuggestionDto(row.id(), row.title(), row.releaseYear())));
+        }
+        return loaded;
+    }
+
+    private synchronized void apply(Consumer<Titles> change) {
+        if (titles != null) {
+            change.accept(titles);
+        }
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    private static final class Titles {
+        private final ConcurrentSkipListMap<String, MovieSuggestionDto> sorted = new ConcurrentSkipListMap<>();
+        // Only touched by writers, which hold the index monitor.
+        private final Map<Long, String> keysById = new HashMap<>();
+
+        private void upsert(MovieSuggestionDto suggestion) {
+            // ids are zero-padded so equal titles sort numerically
+            String key = fold(suggestion.title()) + ID_SEPARATOR + "%019d".formatted(suggestion.id());
+            String previous = keysById.put(suggestion.id(), key);
+            // insert before removing so a concurrent reader never misses a renamed movie
+            sorted.put(key, suggestion);
+            if (previous != null && !previous.equals(key)) {
+                sorted.remove(previous);
+            }
+        }
+
+        private void remove(long id) {
+            String key = keysById.remove(id);
+            if (key != null) {
+                sorted.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package profit.springrest.service.director;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import profit.springrest.data.Director;
+import profit.springrest.repository.DirectorRepository;
+
+import java.util.Collection;
+
+/**
+ * Drops cached director state after a write. Hibernate already keeps the entity region and the
+ * name lookups consistent for writes it performs itself; evicting explicitly also covers
+ * bulk and native statements, which bypass that bookkeeping.
+ */
+@Component
+@RequiredArgsConstructor
+public class DirectorCacheEvictor {
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evict(Long id) {
+        cache().evictEntityData(Director.class, id);
+        evictNames();
+    }
+
+    /**
+     * For directors removed by a native statement: evicts now and again after commit, so a
+     * reader that cached a director before the delete became visible does not keep it.
+     */
+    public void evictDeleted(Collection<Long> ids) {
+        evictEach(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictEach(ids);
+                }
+            });
+        }
+    }
+
+    /**
+     * For directors inserted by a native statement: the cached name lookups may say the names
+     * are free, so they are dropped now and again after commit.
+     */
+    public void evictInserted() {
+        evictNames();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNames();
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        cache().evictEntityData(Director.class);
+        evictNames();
+    }
+
+    public void evictNames() {
+        cache().evictQueryRegion(DirectorRepository.NAMES_CACHE_REGION);
+    }
+
+    private void evictEach(Collection<Long> ids) {
+        Cache cache = cache();
+        ids.forEach(id -> cache.evictEntityData(Director.class, id));
+        evictNames();
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+}
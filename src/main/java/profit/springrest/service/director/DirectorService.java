@@ -1,16 +1,43 @@
 package profit.springrest.service.director;
 
+import profit.springrest.dto.director.DirectorDeleteResultDto;
 import profit.springrest.dto.director.DirectorRequestDto;
 import profit.springrest.dto.director.DirectorResponseDto;
+import profit.springrest.dto.director.DirectorUpsertResultDto;
+import profit.springrest.dto.movie.PageResponse;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface DirectorService {
     public DirectorResponseDto createDirector(DirectorRequestDto dto);
 
+    /**
+     * Returns the director with this name, creating it if there is none.
+     */
+    public DirectorUpsertResultDto upsertDirector(DirectorRequestDto dto);
+
+    /**
+     * Resolves every name to a director id, creating the missing directors, in one statement.
+     * Duplicate names are reported once, in the order they were first given.
+     */
+    public List<DirectorUpsertResultDto> upsertDirectors(Collection<String> names);
+
     public DirectorResponseDto updateDirector(DirectorRequestDto dto, Long id);
 
-    public List<DirectorResponseDto> getAllDirectors();
+    /**
+     * A keyset page of directors in id order, or, when limited to names starting with
+     * {@code namePrefix} (case-insensitive), in (lower(name), id) order.
+     */
+    public PageResponse<DirectorResponseDto> getDirectors(String namePrefix, String cursor, int size);
+
+    public String getDirectorsVersionTag();
 
     public void deleteDirectorById(Long id);
+
+    /**
+     * Deletes the directors and, through the database cascade, their movies. Unknown ids are
+     * reported rather than rejected.
+     */
+    public DirectorDeleteResultDto deleteDirectors(Collection<Long> ids);
 }
@@ -1,31 +1,73 @@
 package profit.springrest.service.director;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import profit.springrest.config.Coalesced;
+import profit.springrest.data.Director;
+import profit.springrest.dto.director.DirectorCursor;
+import profit.springrest.dto.director.DirectorDeleteResultDto;
 import profit.springrest.dto.director.DirectorRequestDto;
 import profit.springrest.dto.director.DirectorResponseDto;
+import profit.springrest.dto.director.DirectorUpsertResultDto;
+import profit.springrest.dto.movie.PageResponse;
 import profit.springrest.exception.EntityNotFoundException;
 import profit.springrest.mapper.DirectorMapper;
+import profit.springrest.repository.DataVersionRepository;
 import profit.springrest.repository.DirectorRepository;
+import profit.springrest.service.catalog.CatalogEventBridge;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed(value = "service.method", description = "Service method execution time")
 public class DirectorServiceImpl implements DirectorService {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final DirectorRepository directorRepository;
     private final DirectorMapper directorMapper;
+    private final DirectorCacheEvictor directorCacheEvictor;
+    private final DataVersionRepository dataVersionRepository;
+    private final CatalogEventBridge catalogEventBridge;
 
+    /**
+     * The insert and the uniqueness check are one statement, so two concurrent creates of the
+     * same name end in one director and one 400 rather than a constraint violation.
+     */
     @Override
     public DirectorResponseDto createDirector(DirectorRequestDto dto) {
-        if (directorRepository.existsByName(dto.name())) {
+        var result = upsertDirector(dto);
+        if (!result.created()) {
             throw new IllegalArgumentException("Director with name " + dto.name() + " already exists");
         }
+        return new DirectorResponseDto(result.id(), result.name());
+    }
 
-        var saved = directorRepository.save(directorMapper.toEntity(dto));
-        return directorMapper.toDto(saved);
+    @Override
+    public DirectorUpsertResultDto upsertDirector(DirectorRequestDto dto) {
+        return upsertDirectors(List.of(dto.name())).getFirst();
+    }
+
+    @Override
+    public List<DirectorUpsertResultDto> upsertDirectors(Collection<String> names) {
+        List<DirectorUpsertResultDto> results = directorRepository.upsertByName(names);
+        List<Director> created = results.stream()
+                .filter(DirectorUpsertResultDto::created)
+                .map(DirectorServiceImpl::toEntity)
+                .toList();
+        if (!created.isEmpty()) {
+            directorCacheEvictor.evictInserted();
+            catalogEventBridge.insertedInBulk(created);
+        }
+        return results;
     }
 
     @Override
@@ -39,21 +81,75 @@ public class DirectorServiceImpl implements DirectorService {
 
         directorMapper.updateEntityFromDto(dto, director);
         var saved = directorRepository.save(director);
+        directorCacheEvictor.evict(id);
         return directorMapper.toDto(saved);
     }
 
+    @Coalesced("director-page")
+    @Transactional(readOnly = true)
+    @Override
+    public PageResponse<DirectorResponseDto> getDirectors(String namePrefix, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        DirectorCursor after = cursor != null ? DirectorCursor.decode(cursor) : null;
+        boolean byName = namePrefix != null && !namePrefix.isBlank();
+        if (after != null && byName != (after.name() != null)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        Limit limit = Limit.of(size + 1);
+        List<DirectorResponseDto> rows = byName
+                ? directorRepository.findPageByNamePrefixAfter(namePrefix.strip().toLowerCase(Locale.ROOT), after, limit)
+                : directorRepository.findPageAfter(after != null ? after.id() : 0, limit);
+
+        boolean hasNext = rows.size() > size;
+        List<DirectorResponseDto> content = hasNext ? List.copyOf(rows.subList(0, size)) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            DirectorResponseDto last = content.getLast();
+            nextCursor = (byName ? new DirectorCursor(last.id(), last.name()) : new DirectorCursor(last.id())).encode();
+        }
+        return PageResponse.<DirectorResponseDto>builder()
+                .list(content)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Coalesced("director-version")
     @Transactional(readOnly = true)
     @Override
-    public List<DirectorResponseDto> getAllDirectors() {
-        return directorMapper.toDtoList(directorRepository.findAll());
+    public String getDirectorsVersionTag() {
+        return String.valueOf(dataVersionRepository.sumVersions(DataVersionRepository.DIRECTORS));
     }
 
     @Override
     public void deleteDirectorById(Long id) {
-        if (!directorRepository.existsById(id)) {
+        if (deleteDirectors(List.of(id)).deletedIds().isEmpty()) {
             throw new EntityNotFoundException("Director with id " + id + " not found");
         }
+    }
+
+    /**
+     * One native DELETE cascaded by the database, instead of loading every director and movie
+     * and deleting them row by row through the {@code Director.movies} cascade.
+     */
+    @Override
+    public DirectorDeleteResultDto deleteDirectors(Collection<Long> ids) {
+        Map<Long, List<Long>> deleted = directorRepository.deleteCascading(new LinkedHashSet<>(ids));
+        List<Long> deletedIds = List.copyOf(deleted.keySet());
+        List<Long> movieIds = deleted.values().stream().flatMap(List::stream).toList();
+
+        directorCacheEvictor.evictDeleted(deletedIds);
+        catalogEventBridge.deletedInBulk(deletedIds, movieIds);
+
+        List<Long> notFoundIds = ids.stream().distinct().filter(id -> !deleted.containsKey(id)).toList();
+        return new DirectorDeleteResultDto(deletedIds, notFoundIds, movieIds.size());
+    }
 
-        directorRepository.deleteById(id);
+    private static Director toEntity(DirectorUpsertResultDto result) {
+        Director director = new Director();
+        director.setId(result.id());
+        director.setName(result.name());
+        return director;
     }
 }
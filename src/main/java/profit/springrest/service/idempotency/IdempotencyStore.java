@@ -0,0 +1,20 @@
+package profit.springrest.service.idempotency;
+
+import java.lang.reflect.Type;
+
+/**
+ * Completed responses to idempotent requests, by scoped key, until they expire.
+ */
+public interface IdempotencyStore {
+    /**
+     * The response stored under the key, or {@code null} when there is none or it has expired.
+     * {@code bodyType} is the handler's response body type, for stores that keep the body
+     * serialized.
+     */
+    IdempotentResponse find(String key, Type bodyType);
+
+    /**
+     * Keeps the response; if another one was stored under the key meanwhile, that one stays.
+     */
+    void save(String key, IdempotentResponse response);
+}
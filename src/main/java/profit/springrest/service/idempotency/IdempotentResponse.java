@@ -0,0 +1,29 @@
+package profit.springrest.service.idempotency;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A handler's response as kept for replay, with the fingerprint of the arguments that produced it.
+ */
+public record IdempotentResponse(
+        String fingerprint,
+        int status,
+        Map<String, List<String>> headers,
+        Object body
+) {
+    public static IdempotentResponse of(String fingerprint, ResponseEntity<?> response) {
+        return new IdempotentResponse(fingerprint, response.getStatusCode().value(),
+                Map.copyOf(response.getHeaders().asMultiValueMap()), response.getBody());
+    }
+
+    public ResponseEntity<Object> toResponseEntity(String replayedHeader) {
+        HttpHeaders replayed = new HttpHeaders();
+        headers.forEach(replayed::addAll);
+        replayed.set(replayedHeader, "true");
+        return ResponseEntity.status(status).headers(replayed).body(body);
+    }
+}
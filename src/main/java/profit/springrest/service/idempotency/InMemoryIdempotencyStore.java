@@ -0,0 +1,79 @@
+package profit.springrest.service.idempotency;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import profit.springrest.config.IdempotencyProperties;
+import tools.jackson.databind.ObjectMapper;
+
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps responses on the heap in insertion order, so the oldest entry is both the first to expire
+ * and the one dropped when {@code movie.idempotency.max-entries} or {@code max-size} is exceeded.
+ * A response's size is estimated by the length of its body as JSON; one larger than
+ * {@code max-size} on its own is not kept, so its retry runs again. Responses are lost on restart
+ * and not shared between instances.
+ */
+@Component
+@ConditionalOnProperty(name = "movie.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    private final ObjectMapper objectMapper;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private long bytes;
+
+    public InMemoryIdempotencyStore(IdempotencyProperties properties, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.ttlNanos = properties.ttl().toNanos();
+        this.maxEntries = properties.maxEntries();
+        this.maxBytes = properties.maxSize().toBytes();
+    }
+
+    @Override
+    public synchronized IdempotentResponse find(String key, Type bodyType) {
+        purgeExpired(System.nanoTime());
+        Entry entry = entries.get(key);
+        return entry != null ? entry.response() : null;
+    }
+
+    @Override
+    public void save(String key, IdempotentResponse response) {
+        // measured outside the lock: serializing a large body is the slow part
+        long size = key.length() + (response.body() != null ? objectMapper.writeValueAsBytes(response.body()).length : 0);
+        if (size > maxBytes) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            purgeExpired(now);
+            if (entries.putIfAbsent(key, new Entry(response, now, size)) == null) {
+                bytes += size;
+            }
+            Iterator<Entry> oldest = entries.values().iterator();
+            while (entries.size() > maxEntries || bytes > maxBytes) {
+                bytes -= oldest.next().size();
+                oldest.remove();
+            }
+        }
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Map.Entry<String, Entry>> oldest = entries.entrySet().iterator();
+        while (oldest.hasNext()) {
+            Entry entry = oldest.next().getValue();
+            if (now - entry.storedAt() < ttlNanos) {
+                break;
+            }
+            bytes -= entry.size();
+            oldest.remove();
+        }
+    }
+
+    private record Entry(IdempotentResponse response, long storedAt, long size) {
+    }
+}
@@ -0,0 +1,72 @@
+package profit.springrest.service.idempotency;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import profit.springrest.config.IdempotencyProperties;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.lang.reflect.Type;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps responses in the {@code idempotency_keys} table, so a retry is answered by whichever
+ * instance receives it, also after a restart. Bodies are stored as JSON and read back as the
+ * handler's body type. Expired rows are deleted as new ones are written.
+ */
+@Component
+@ConditionalOnProperty(name = "movie.idempotency.store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+    private static final TypeReference<Map<String, List<String>>> HEADERS = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, IdempotencyProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = properties.ttl();
+    }
+
+    @Override
+    public IdempotentResponse find(String key, Type bodyType) {
+        List<IdempotentResponse> rows = jdbcTemplate.query("""
+                        select fingerprint, status, headers, body
+                        from idempotency_keys
+                        where idempotency_key = ? and created_at > ?
+                        """,
+                (rs, rowNum) -> {
+                    String body = rs.getString("body");
+                    return new IdempotentResponse(rs.getString("fingerprint"), rs.getInt("status"),
+                            objectMapper.readValue(rs.getString("headers"), HEADERS),
+                            body != null ? objectMapper.readValue(body, objectMapper.constructType(bodyType)) : null);
+                },
+                key, expiredBefore());
+        return rows.isEmpty() ? null : rows.getFirst();
+    }
+
+    @Override
+    public void save(String key, IdempotentResponse response) {
+        jdbcTemplate.update("delete from idempotency_keys where created_at <= ?", expiredBefore());
+        jdbcTemplate.update("""
+                        insert into idempotency_keys (idempotency_key, fingerprint, status, headers, body, created_at)
+                        values (?, ?, ?, ?, ?, ?)
+                        on conflict (idempotency_key) do nothing
+                        """,
+                key, response.fingerprint(), response.status(),
+                objectMapper.writeValueAsString(response.headers()),
+                response.body() != null ? objectMapper.writeValueAsString(response.body()) : null,
+                Timestamp.from(Instant.now()));
+    }
+
+    private Timestamp expiredBefore() {
+        return Timestamp.from(Instant.now().minus(ttl));
+    }
+}
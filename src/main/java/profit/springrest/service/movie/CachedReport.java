@@ -0,0 +1,20 @@
+package profit.springrest.service.movie;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * An open cached report file and the data version it was generated at. The channel stays
+ * readable after the cache evicts the file, so the caller must close it.
+ */
+public record CachedReport(
+        FileChannel channel,
+        long size,
+        String version
+) implements Closeable {
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
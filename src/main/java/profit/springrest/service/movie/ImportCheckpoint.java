@@ -0,0 +1,14 @@
+package profit.springrest.service.movie;
+
+/**
+ * Committed progress of an import: every row up to {@code lastRow} has been written or counted as
+ * failed, and {@code reportedFailures} failure reasons have been kept so far.
+ */
+public record ImportCheckpoint(
+        long lastRow,
+        int successCount,
+        int failedCount,
+        int reportedFailures
+) {
+    public static final ImportCheckpoint START = new ImportCheckpoint(0, 0, 0, 0);
+}
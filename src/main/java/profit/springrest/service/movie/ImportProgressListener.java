@@ -0,0 +1,23 @@
+package profit.springrest.service.movie;
+
+import profit.springrest.dto.movie.ImportFailureDto;
+
+import java.util.List;
+
+public interface ImportProgressListener {
+    ImportProgressListener NONE = new ImportProgressListener() {
+    };
+
+    /**
+     * Called for every element read from the file, before it is validated.
+     */
+    default void rowParsed(long rowNumber) {
+    }
+
+    /**
+     * Called inside the transaction that commits the rows up to {@code checkpoint.lastRow()}, with
+     * the failure reasons reported since the previous checkpoint.
+     */
+    default void checkpoint(ImportCheckpoint checkpoint, List<ImportFailureDto> newFailures) {
+    }
+}
@@ -0,0 +1,39 @@
+package profit.springrest.service.movie;
+
+import profit.springrest.dto.movie.MovieListDto;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Renders movie rows as CSV straight into a {@link Writer}, one row at a time.
+ */
+public final class MovieCsvWriter {
+    public static final String HEADER = "ID,Title,Year,Genre,Director\n";
+
+    private MovieCsvWriter() {
+    }
+
+    public static void writeHeader(Writer writer) throws IOException {
+        writer.write(HEADER);
+    }
+
+    public static void writeRow(Writer writer, MovieListDto movie) throws IOException {
+        writer.write(String.valueOf(movie.id()));
+        writer.write(',');
+        writeQuoted(writer, movie.title());
+        writer.write(',');
+        writer.write(Integer.toString(movie.releaseYear()));
+        writer.write(',');
+        writer.write(movie.genre().name());
+        writer.write(',');
+        writeQuoted(writer, movie.directorName());
+        writer.write('\n');
+    }
+
+    private static void writeQuoted(Writer writer, String value) throws IOException {
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
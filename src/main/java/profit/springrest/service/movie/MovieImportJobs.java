@@ -0,0 +1,317 @@
+package profit.springrest.service.movie;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import profit.springrest.config.BulkPartition;
+import profit.springrest.config.ImportProperties;
+import profit.springrest.data.ImportJob;
+import profit.springrest.data.ImportJobStatus;
+import profit.springrest.dto.movie.ImportFailureDto;
+import profit.springrest.dto.movie.ImportJobDto;
+import profit.springrest.exception.BulkheadFullException;
+import profit.springrest.exception.EntityNotFoundException;
+import profit.springrest.repository.ImportJobRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs uploads as background import jobs. The multipart body is spooled to
+ * {@code movie.import.spool-dir} and a row in {@code import_jobs} is created before the request
+ * returns; a fixed pool of workers then imports the file, checkpointing the job with every
+ * committed chunk. Jobs still queued or running at shutdown are resumed from their last
+ * checkpoint when the application starts again, so the spool directory must survive restarts:
+ * the default, {@code import-spool} under the working directory, does, while a temporary
+ * directory may be cleared on reboot and leave those jobs without their files.
+ * <p>
+ * Each job is leased to the instance that queued it ({@code movie.import.lease}). A sweep every
+ * third of the lease renews the leases this instance holds and claims jobs whose lease has
+ * expired, provided their spool file can be read here; the claim, the start and every checkpoint
+ * are conditional on still holding the lease, so a job runs on one instance at a time and a
+ * crashed instance's jobs are picked up by the others.
+ * <p>
+ * A worker runs the whole job in the bulk database bulkhead partition, so imports never take the
+ * permits interactive requests need. A job that finds the partition busy goes back in the queue.
+ */
+@Slf4j
+@Component
+public class MovieImportJobs {
+    private static final long SPOOL_TRANSFER_SIZE = 8L * 1024 * 1024;
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final MovieImporter movieImporter;
+    private final ImportJobRepository importJobRepository;
+    private final ImportProperties importProperties;
+    private final BulkPartition bulkPartition;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService leaseSweeper;
+    private final String owner = UUID.randomUUID().toString();
+    private final Set<UUID> held = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, AtomicLong> parsedRows = new ConcurrentHashMap<>();
+    private volatile boolean stopping;
+
+    public MovieImportJobs(MovieImporter movieImporter, ImportJobRepository importJobRepository,
+                           ImportProperties importProperties, BulkPartition bulkPartition) {
+        this.movieImporter = movieImporter;
+        this.importJobRepository = importJobRepository;
+        this.importProperties = importProperties;
+        this.bulkPartition = bulkPartition;
+        this.workers = new ThreadPoolExecutor(importProperties.workers(), importProperties.workers(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(importProperties.queueCapacity()),
+                Thread.ofPlatform().name("movie-import-", 0).factory());
+        this.leaseSweeper = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("movie-import-lease").daemon().factory());
+    }
+
+    public ImportJobDto submit(MultipartFile file) {
+        Path spoolFile = spool(file);
+        ImportJob job = new ImportJob();
+        job.setFileName(file.getOriginalFilename());
+        job.setSpoolPath(spoolFile.toString());
+        job.setStatus(ImportJobStatus.QUEUED);
+        job.setCreatedAt(Instant.now());
+        job.setOwner(owner);
+        job.setLeaseExpiresAt(job.getCreatedAt().plus(importProperties.lease()));
+        job = importJobRepository.save(job);
+
+        UUID id = job.getId();
+        held.add(id);
+        try {
+            workers.execute(() -> runInBulkPartition(id));
+        } catch (RejectedExecutionException e) {
+            held.remove(id);
+            importJobRepository.deleteById(id);
+            deleteSpoolFile(spoolFile);
+            throw new BulkheadFullException("Import queue is full, retry later");
+        }
+        return toDto(job, List.of());
+    }
+
+    public ImportJobDto find(UUID id) {
+        ImportJob job = importJobRepository.findWithFailuresById(id).orElseThrow(
+                () -> new EntityNotFoundException("Import job with id: " + id + " not found"));
+        List<ImportFailureDto> failures = job.getFailures().stream()
+                .map(failure -> new ImportFailureDto(failure.getRow(), failure.getReason()))
+                .toList();
+        return toDto(job, failures);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        long period = Math.max(1, importProperties.lease().toMillis() / 3);
+        leaseSweeper.scheduleWithFixedDelay(this::sweepInBulkPartition, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        leaseSweeper.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+        if (!held.isEmpty()) {
+            // lets another instance, or this one after a restart, resume them without waiting out the lease
+            try {
+                importJobRepository.releaseLeases(Set.copyOf(held), owner);
+            } catch (RuntimeException e) {
+                log.warn("Could not release the leases of import jobs {}", held, e);
+            }
+        }
+    }
+
+    private void sweepInBulkPartition() {
+        try {
+            bulkPartition.run(this::sweep);
+        } catch (RuntimeException e) {
+            // a failed sweep must not cancel the schedule; leases last for several sweeps
+            log.warn("Import job lease sweep failed", e);
+        }
+    }
+
+    private void sweep() {
+        Instant now = Instant.now();
+        Instant leaseExpiresAt = now.plus(importProperties.lease());
+        if (!held.isEmpty()) {
+            importJobRepository.renewLeases(Set.copyOf(held), owner, leaseExpiresAt);
+        }
+        for (ImportJob job : importJobRepository.findClaimable(now)) {
+            UUID id = job.getId();
+            if (stopping || held.contains(id) || !Files.isReadable(Path.of(job.getSpoolPath()))) {
+                continue;
+            }
+            if (importJobRepository.claim(id, owner, now, leaseExpiresAt) == 0) {
+                continue;
+            }
+            held.add(id);
+            try {
+                workers.execute(() -> runInBulkPartition(id));
+                log.info("Resuming import job {}", id);
+            } catch (RejectedExecutionException e) {
+                held.remove(id);
+                log.warn("Import queue is full, job {} is left for the next sweep", id);
+            }
+        }
+    }
+
+    private void runInBulkPartition(UUID id) {
+        try {
+            bulkPartition.run(() -> run(id));
+        } catch (BulkheadFullException e) {
+            if (stopping) {
+                return;
+            }
+            try {
+                workers.execute(() -> runInBulkPartition(id));
+                log.info("Bulk database partition busy, import job {} requeued", id);
+            } catch (RejectedExecutionException rejected) {
+                held.remove(id);
+                log.warn("Import queue is full, job {} is left for the next sweep", id);
+            }
+        }
+    }
+
+    private void run(UUID id) {
+        if (stopping) {
+            return;
+        }
+        Instant now = Instant.now();
+        if (importJobRepository.markStarted(id, owner, ImportJobStatus.RUNNING, now, now.plus(importProperties.lease())) == 0) {
+            held.remove(id);
+            log.info("Import job {} has finished or is leased to another instance", id);
+            return;
+        }
+        ImportJob job = importJobRepository.findById(id).orElseThrow();
+        ImportCheckpoint from = new ImportCheckpoint(job.getLastRow(), job.getRowsSucceeded(),
+                job.getRowsFailed(), importJobRepository.countFailures(id));
+        AtomicLong parsed = new AtomicLong(from.lastRow());
+        parsedRows.put(id, parsed);
+
+        Path spoolFile = Path.of(job.getSpoolPath());
+        try (InputStream in = Files.newInputStream(spoolFile)) {
+            movieImporter.importMovies(in, from, new ImportProgressListener() {
+                @Override
+                public void rowParsed(long rowNumber) {
+                    if (stopping) {
+                        throw new ImportStoppedException();
+                    }
+                    parsed.set(rowNumber);
+                }
+
+                @Override
+                public void checkpoint(ImportCheckpoint checkpoint, List<ImportFailureDto> newFailures) {
+                    if (importJobRepository.checkpoint(id, owner, checkpoint.lastRow(), checkpoint.successCount(),
+                            checkpoint.failedCount(), Instant.now().plus(importProperties.lease())) == 0) {
+                        held.remove(id);
+                        log.warn("Import job {} lost its lease, the chunk is rolled back", id);
+                        throw new ImportStoppedException();
+                    }
+                    newFailures.forEach(failure -> importJobRepository.addFailure(id, failure.row(), failure.reason()));
+                }
+            });
+            finish(id, spoolFile, ImportJobStatus.COMPLETED, null);
+        } catch (ImportStoppedException e) {
+            log.info("Import job {} stopped at row {}, it resumes from its last checkpoint", id, parsed.get());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Import job {} failed", id, e);
+            finish(id, spoolFile, ImportJobStatus.FAILED, e.getMessage());
+        } finally {
+            parsedRows.remove(id);
+        }
+    }
+
+    private void finish(UUID id, Path spoolFile, ImportJobStatus status, String error) {
+        held.remove(id);
+        if (importJobRepository.markFinished(id, owner, status, error, Instant.now()) > 0) {
+            deleteSpoolFile(spoolFile);
+        }
+    }
+
+    private Path spool(MultipartFile file) {
+        try {
+            Files.createDirectories(importProperties.spoolDir());
+            Path target = Files.createTempFile(importProperties.spoolDir(), "import-", ".json");
+            try (ReadableByteChannel in = Channels.newChannel(file.getInputStream());
+                 FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE)) {
+                long position = 0;
+                long transferred;
+                while ((transferred = out.transferFrom(in, position, SPOOL_TRANSFER_SIZE)) > 0) {
+                    position += transferred;
+                }
+            } catch (IOException e) {
+                deleteSpoolFile(target);
+                throw e;
+            }
+            return target;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read uploaded file", e);
+        }
+    }
+
+    private static void deleteSpoolFile(Path spoolFile) {
+        try {
+            Files.deleteIfExists(spoolFile);
+        } catch (IOException e) {
+            log.warn("Could not delete spool file {}", spoolFile, e);
+        }
+    }
+
+    private ImportJobDto toDto(ImportJob job, List<ImportFailureDto> failures) {
+        AtomicLong parsed = parsedRows.get(job.getId());
+        long rowsParsed = parsed == null ? job.getLastRow() : Math.max(parsed.get(), job.getLastRow());
+
+        double rowsPerSecond = 0;
+        if (job.getStartedAt() != null) {
+            Instant end = job.getFinishedAt() != null ? job.getFinishedAt() : Instant.now();
+            long millis = Duration.between(job.getStartedAt(), end).toMillis();
+            if (millis > 0) {
+                rowsPerSecond = (rowsParsed - job.getResumedFromRow()) * 1000.0 / millis;
+            }
+        }
+
+        return ImportJobDto.builder()
+                .id(job.getId())
+                .fileName(job.getFileName())
+                .status(job.getStatus())
+                .rowsParsed(rowsParsed)
+                .rowsSucceeded(job.getRowsSucceeded())
+                .rowsFailed(job.getRowsFailed())
+                .rowsPerSecond(rowsPerSecond)
+                .failures(failures)
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private static final class ImportStoppedException extends RuntimeException {
+        private ImportStoppedException() {
+            super(null, null, false, false);
+        }
+    }
+}
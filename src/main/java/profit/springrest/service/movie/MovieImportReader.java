@@ -0,0 +1,74 @@
+package profit.springrest.service.movie;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.InputStream;
+
+/**
+ * Pulls the elements of a top-level JSON array one at a time, so only the current
+ * element is ever held in memory.
+ */
+public class MovieImportReader implements Closeable {
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private long rowNumber;
+    private boolean exhausted;
+
+    public MovieImportReader(ObjectMapper objectMapper, InputStream in) {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.createParser(in);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IllegalArgumentException("Import file must contain a JSON array of movies");
+        }
+    }
+
+    /**
+     * Skips elements without building them until {@code rows} elements have been consumed, to
+     * resume after a checkpoint. Stops early if the array ends first.
+     */
+    public void skip(long rows) {
+        while (!exhausted && rowNumber < rows) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                exhausted = true;
+                return;
+            }
+            rowNumber++;
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * Reads the next array element as a tree, or returns {@code null} once the array is exhausted.
+     * Syntax errors are thrown as they make the rest of the stream unreadable.
+     */
+    public JsonNode nextElement() {
+        if (exhausted) {
+            return null;
+        }
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            exhausted = true;
+            return null;
+        }
+        rowNumber++;
+        return objectMapper.readTree(parser);
+    }
+
+    /**
+     * One-based index of the element last returned by {@link #nextElement()}.
+     */
+    public long rowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public void close() {
+        parser.close();
+    }
+}
@@ -0,0 +1,267 @@
+package profit.springrest.service.movie;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import profit.springrest.config.ImportProperties;
+import profit.springrest.data.Director;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.ImportFailureDto;
+import profit.springrest.dto.movie.ImportResultDto;
+import profit.springrest.dto.movie.MovieRequestDto;
+import profit.springrest.mapper.MovieMapper;
+import profit.springrest.repository.DirectorRepository;
+import profit.springrest.repository.MovieRepository;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a JSON array of movies in fixed-size chunks. Elements are parsed one at a time,
+ * directors are resolved once per chunk (from the second-level cache where possible) and every
+ * chunk is written and committed in its own transaction, so memory use does not grow with the
+ * size of the file.
+ */
+@Component
+@RequiredArgsConstructor
+public class MovieImporter {
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+    // serialization failure and deadlock: PostgreSQL aborted the transaction, the same writes may succeed
+    private static final Set<String> TRANSIENT_SQL_STATES = Set.of("40001", "40P01");
+
+    private final MovieRepository movieRepository;
+    private final DirectorRepository directorRepository;
+    private final MovieMapper movieMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ImportProperties importProperties;
+    private final MovieMetrics movieMetrics;
+
+    public ImportResultDto importMovies(InputStream in) {
+        return importMovies(in, ImportCheckpoint.START, ImportProgressListener.NONE);
+    }
+
+    /**
+     * Imports the rows after {@code from.lastRow()}, continuing the counts of {@code from}. Rows up
+     * to the checkpoint are skipped without being mapped, so an interrupted import resumes at the
+     * last committed chunk.
+     */
+    public ImportResultDto importMovies(InputStream in, ImportCheckpoint from, ImportProgressListener listener) {
+        long started = System.nanoTime();
+        ImportStats stats = new ImportStats(importProperties.maxReportedFailures(), from);
+        List<ImportRow> chunk = new ArrayList<>(importProperties.chunkSize());
+        long lastRead = from.lastRow();
+
+        try (MovieImportReader reader = new MovieImportReader(objectMapper, in)) {
+            reader.skip(from.lastRow());
+            JsonNode element;
+            while ((element = reader.nextElement()) != null) {
+                lastRead = reader.rowNumber();
+                listener.rowParsed(lastRead);
+                ImportRow row = toRow(lastRead, element, stats);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() >= importProperties.chunkSize()) {
+                    writeChunk(chunk, lastRead, stats, listener);
+                    chunk.clear();
+                }
+            }
+        } catch (JacksonException e) {
+            writeChunk(chunk, lastRead, stats, listener);
+            chunk.clear();
+            stats.fail(lastRead + 1, "Malformed JSON, import stopped: " + e.getOriginalMessage());
+        }
+        writeChunk(chunk, lastRead, stats, listener);
+        movieMetrics.importedRows(stats.success - from.successCount(), stats.failed - from.failedCount());
+
+        return ImportResultDto.builder()
+                .successCount(stats.success)
+                .failedCount(stats.failed)
+                .failures(stats.failures)
+                .durationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))
+                .build();
+    }
+
+    private ImportRow toRow(long rowNumber, JsonNode element, ImportStats stats) {
+        MovieRequestDto dto;
+        try {
+            dto = objectMapper.treeToValue(element, MovieRequestDto.class);
+        } catch (JacksonException e) {
+            stats.fail(rowNumber, e.getOriginalMessage());
+            return null;
+        }
+
+        Set<ConstraintViolation<MovieRequestDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            stats.fail(rowNumber, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        return new ImportRow(rowNumber, dto);
+    }
+
+    /**
+     * Writes the chunk and checkpoints {@code lastRow} in one transaction. An empty chunk still
+     * checkpoints rows that failed validation since the last checkpoint.
+     * <p>
+     * A chunk aborted by a deadlock or serialization failure is retried. One rejected by a data or
+     * constraint error fails all of its rows and the import moves on. Any other error, or a
+     * deadlock that persists, is rethrown before the chunk is checkpointed: its rows are neither
+     * written nor counted as failed.
+     */
+    private void writeChunk(List<ImportRow> chunk, long lastRow, ImportStats stats, ImportProgressListener listener) {
+        if (chunk.isEmpty()) {
+            if (listener != ImportProgressListener.NONE && stats.hasProgressSince(lastRow)) {
+                transactionTemplate.executeWithoutResult(status -> checkpoint(lastRow, stats, listener));
+                stats.saved = stats.checkpoint(lastRow);
+            }
+            return;
+        }
+
+        ImportCheckpoint before = stats.checkpoint(lastRow);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeRows(chunk, lastRow, stats, listener));
+                stats.saved = stats.checkpoint(lastRow);
+                return;
+            } catch (RuntimeException e) {
+                stats.rollback(before);
+                String sqlState = sqlState(e);
+                if (TRANSIENT_SQL_STATES.contains(sqlState) && attempt < MAX_CHUNK_ATTEMPTS) {
+                    continue;
+                }
+                if (!isRowError(e, sqlState)) {
+                    throw e;
+                }
+                String reason = "Chunk rolled back: " + e.getMessage();
+                chunk.forEach(row -> stats.fail(row.rowNumber(), reason));
+                writeChunk(List.of(), lastRow, stats, listener);
+                return;
+            }
+        }
+    }
+
+    private void writeRows(List<ImportRow> chunk, long lastRow, ImportStats stats, ImportProgressListener listener) {
+        Set<Long> directorIds = new HashSet<>();
+        for (ImportRow row : chunk) {
+            directorIds.add(row.dto().directorId());
+        }
+        Map<Long, Director> directors = directorRepository.findAllCachedById(directorIds).stream()
+                .collect(Collectors.toMap(Director::getId, Function.identity()));
+
+        List<Movie> movies = new ArrayList<>(chunk.size());
+        List<ImportFailureDto> chunkFailures = new ArrayList<>();
+        for (ImportRow row : chunk) {
+            Director director = directors.get(row.dto().directorId());
+            if (director == null) {
+                chunkFailures.add(new ImportFailureDto(row.rowNumber(),
+                        "Director with id: " + row.dto().directorId() + " not found"));
+                continue;
+            }
+            Movie movie = movieMapper.toEntity(row.dto());
+            movie.setDirector(director);
+            movies.add(movie);
+        }
+
+        movieRepository.saveAll(movies);
+        stats.success += movies.size();
+        chunkFailures.forEach(failure -> stats.fail(failure.row(), failure.reason()));
+        checkpoint(lastRow, stats, listener);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static String sqlState(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getSQLState() != null) {
+                return sql.getSQLState();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Data exceptions (class 22) and integrity constraint violations (class 23) are caused by the
+     * rows themselves, as are bean validation failures raised when the entities are persisted.
+     */
+    private static boolean isRowError(Throwable e, String sqlState) {
+        if (sqlState != null) {
+            return sqlState.startsWith("22") || sqlState.startsWith("23");
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void checkpoint(long lastRow, ImportStats stats, ImportProgressListener listener) {
+        listener.checkpoint(stats.checkpoint(lastRow), stats.failuresSinceCheckpoint());
+    }
+
+    private record ImportRow(long rowNumber, MovieRequestDto dto) {
+    }
+
+    private static final class ImportStats {
+        private final int maxReportedFailures;
+        private final int reportedBefore;
+        private final List<ImportFailureDto> failures = new ArrayList<>();
+        private int success;
+        private int failed;
+        private ImportCheckpoint saved;
+
+        private ImportStats(int maxReportedFailures, ImportCheckpoint from) {
+            this.maxReportedFailures = maxReportedFailures;
+            this.reportedBefore = from.reportedFailures();
+            this.success = from.successCount();
+            this.failed = from.failedCount();
+            this.saved = from;
+        }
+
+        private void fail(long rowNumber, String reason) {
+            failed++;
+            if (reportedBefore + failures.size() < maxReportedFailures) {
+                failures.add(new ImportFailureDto(rowNumber, reason));
+            }
+        }
+
+        private ImportCheckpoint checkpoint(long lastRow) {
+            return new ImportCheckpoint(lastRow, success, failed, reportedBefore + failures.size());
+        }
+
+        private boolean hasProgressSince(long lastRow) {
+            return !checkpoint(lastRow).equals(saved);
+        }
+
+        private List<ImportFailureDto> failuresSinceCheckpoint() {
+            return List.copyOf(failures.subList(saved.reportedFailures() - reportedBefore, failures.size()));
+        }
+
+        private void rollback(ImportCheckpoint to) {
+            success = to.successCount();
+            failed = to.failedCount();
+            failures.subList(to.reportedFailures() - reportedBefore, failures.size()).clear();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package profit.springrest.service.movie;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Row counters for the bulk paths: {@code movie.import.rows} (tagged by result) and
+ * {@code movie.report.rows}.
+ */
+@Component
+public class MovieMetrics {
+    private final Counter importedRows;
+    private final Counter failedRows;
+    private final Counter reportRows;
+
+    public MovieMetrics(MeterRegistry meterRegistry) {
+        importedRows = Counter.builder("movie.import.rows").tag("result", "success").register(meterRegistry);
+        failedRows = Counter.builder("movie.import.rows").tag("result", "failed").register(meterRegistry);
+        reportRows = Counter.builder("movie.report.rows").register(meterRegistry);
+    }
+
+    public void importedRows(int success, int failed) {
+        importedRows.increment(success);
+        failedRows.increment(failed);
+    }
+
+    public void reportRows(long rows) {
+        reportRows.increment(rows);
+    }
+}
@@ -0,0 +1,193 @@
+package profit.springrest.service.movie;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import profit.springrest.config.ReportCacheProperties;
+import profit.springrest.dto.movie.MovieFilterRequest;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * CSV reports on local disk, keyed by the filter fields that select rows and stamped with the
+ * movie/director data version. A report is regenerated only once a write has moved the version
+ * on; concurrent requests for the same missing report wait for a single generation. Files are
+ * evicted least recently used first once they exceed {@code movie.report.cache.max-size}.
+ */
+@Slf4j
+@Component
+public class MovieReportCache {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    // the names generate() gives its temporary files and reports: nothing else in the directory is ours
+    private static final Pattern CACHE_FILE = Pattern.compile("report-.*\\.tmp|[0-9a-f]{32}-[0-9]+\\.csv");
+
+    private final MovieService movieService;
+    private final Path dir;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Entry>> generating = new ConcurrentHashMap<>();
+    private long totalBytes;
+
+    public MovieReportCache(MovieService movieService, ReportCacheProperties properties) {
+        this.movieService = movieService;
+        this.dir = properties.dir();
+        this.maxBytes = properties.maxSize().toBytes();
+    }
+
+    /**
+     * Reports from a previous run carry versions the index no longer knows, so they are removed.
+     * Other files are left alone, in case the directory is shared.
+     */
+    @PostConstruct
+    void clearDirectory() throws IOException {
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(file -> CACHE_FILE.matcher(file.getFileName().toString()).matches())
+                    .forEach(MovieReportCache::delete);
+        }
+    }
+
+    public CachedReport get(MovieFilterRequest filter) throws IOException {
+        String key = key(filter);
+        String version = movieService.getMoviesVersionTag();
+
+        CachedReport cached = open(key, version);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> running = generating.putIfAbsent(key + "-" + version, mine);
+        if (running == null) {
+            try {
+                mine.complete(generate(key, version, filter));
+            } catch (IOException | RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                generating.remove(key + "-" + version, mine);
+            }
+        } else {
+            await(running);
+        }
+
+        cached = open(key, version);
+        if (cached == null) {
+            // evicted straight away by a larger report; regenerate rather than fail
+            return get(filter);
+        }
+        return cached;
+    }
+
+    private Entry generate(String key, String version, MovieFilterRequest filter) throws IOException {
+        Path tmp = Files.createTempFile(dir, "report-", ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), WRITE_BUFFER_SIZE)) {
+                movieService.generateCsvReport(filter, out);
+            }
+            Path file = dir.resolve(key + "-" + version + ".csv");
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Entry entry = new Entry(file, version, Files.size(file));
+            store(key, entry);
+            return entry;
+        } finally {
+            delete(tmp);
+        }
+    }
+
+    /**
+     * Opens the report under the index lock, so eviction cannot remove the file before it is open.
+     */
+    private synchronized CachedReport open(String key, String version) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.version().equals(version)) {
+            return null;
+        }
+        return new CachedReport(FileChannel.open(entry.file(), StandardOpenOption.READ), entry.size(), version);
+    }
+
+    private synchronized void store(String key, Entry entry) {
+        Entry replaced = entries.put(key, entry);
+        if (replaced != null) {
+            totalBytes -= replaced.size();
+            if (!replaced.file().equals(entry.file())) {
+                delete(replaced.file());
+            }
+        }
+        totalBytes += entry.size();
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> candidate = eldest.next();
+            if (candidate.getKey().equals(key)) {
+                continue;
+            }
+            eldest.remove();
+            totalBytes -= candidate.getValue().size();
+            delete(candidate.getValue().file());
+        }
+    }
+
+    private static void await(CompletableFuture<Entry> running) throws IOException {
+        try {
+            running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Only the fields that select rows: paging and cursors do not change a report.
+     */
+    private static String key(MovieFilterRequest filter) {
+        String normalized = "directorId=" + filter.directorId()
+                + "&genre=" + filter.genre()
+                + "&releaseYear=" + filter.releaseYear();
+        if (filter.hasTitle()) {
+            // last, so no title can be mistaken for another field
+            normalized += "&title=" + filter.title().strip();
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete cached report {}", file, e);
+        }
+    }
+
+    private record Entry(Path file, String version, long size) {
+    }
+}
@@ -3,7 +3,10 @@ package profit.springrest.service.movie;
 import org.springframework.web.multipart.MultipartFile;
 import profit.springrest.dto.movie.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.UUID;
 
 public interface MovieService {
     MovieResponseDto createMovie(MovieRequestDto dto);
@@ -16,9 +19,35 @@ public interface MovieService {
 
     List<MovieListDto> findAllMovies();
 
+    /**
+     * Version of a single movie, changing whenever the movie or its director is written.
+     */
+    String getMovieVersionTag(Long id);
+
+    /**
+     * Version of the whole movie list, changing whenever any movie or director is written.
+     */
+    String getMoviesVersionTag();
+
     PageResponse<MovieListDto> searchMovies(MovieFilterRequest filter);
 
-    byte[] generateCsvReport(MovieFilterRequest filter);
+    /**
+     * Counts per genre, release year and director among the movies matching the filter, each
+     * facet ignoring its own filter. Paging fields are ignored.
+     */
+    MovieFacetsDto getFacets(MovieFilterRequest filter);
+
+    /**
+     * Up to {@code limit} movies whose title starts with {@code query}, ignoring case and accents.
+     */
+    List<MovieSuggestionDto> suggestTitles(String query, int limit);
+
+    void generateCsvReport(MovieFilterRequest filter, OutputStream out) throws IOException;
+
+    /**
+     * Spools the upload and queues it as a background import job.
+     */
+    ImportJobDto importMovies(MultipartFile file);
 
-    ImportResultDto importMovies(MultipartFile file);
+    ImportJobDto getImportJob(UUID jobId);
 }
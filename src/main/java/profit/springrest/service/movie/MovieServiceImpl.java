@@ -1,34 +1,62 @@
 package profit.springrest.service.movie;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import profit.springrest.config.Coalesced;
+import profit.springrest.config.DbBulkhead;
 import profit.springrest.data.Movie;
 import profit.springrest.dto.movie.*;
 import profit.springrest.exception.EntityNotFoundException;
 import profit.springrest.mapper.MovieMapper;
+import profit.springrest.repository.DataVersionRepository;
 import profit.springrest.repository.DirectorRepository;
+import profit.springrest.repository.LikePatterns;
 import profit.springrest.repository.MovieRepository;
 import profit.springrest.repository.MovieSpecification;
-import tools.jackson.core.type.TypeReference;
-import tools.jackson.databind.ObjectMapper;
+import profit.springrest.service.catalog.MovieCatalog;
+import profit.springrest.service.catalog.TitleSuggestIndex;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
+@Timed(value = "service.method", description = "Service method execution time")
 public class MovieServiceImpl implements MovieService {
+    private static final int CSV_BUFFER_SIZE = 8192;
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final MovieRepository movieRepository;
     private final DirectorRepository directorRepository;
     private final MovieMapper movieMapper;
-    private final ObjectMapper objectMapper;
+    private final MovieImportJobs movieImportJobs;
+    private final ObjectProvider<MovieCatalog> movieCatalog;
+    private final TitleSuggestIndex titleSuggestIndex;
+    private final DataVersionRepository dataVersionRepository;
+    private final MovieMetrics movieMetrics;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
     public MovieResponseDto createMovie(MovieRequestDto dto) {
@@ -63,6 +91,7 @@ public class MovieServiceImpl implements MovieService {
         movieRepository.deleteById(id);
     }
 
+    @Coalesced("movie")
     @Transactional(readOnly = true)
     @Override
     public MovieResponseDto findMovieById(Long id) {
@@ -74,79 +103,155 @@ public class MovieServiceImpl implements MovieService {
     @Transactional(readOnly = true)
     @Override
     public List<MovieListDto> findAllMovies() {
-        return movieRepository.findAll().stream()
-                .map(movieMapper::toListDto)
-                .toList();
+        return movieRepository.findListDtos(null);
+    }
+
+    @Coalesced("movie-version")
+    @Transactional(readOnly = true)
+    @Override
+    public String getMovieVersionTag(Long id) {
+        return movieRepository.findVersionById(id)
+                .map(MovieVersion::tag)
+                .orElseThrow(() -> new EntityNotFoundException("Movie with id: %d not found".formatted(id)));
     }
 
     @Transactional(readOnly = true)
     @Override
+    public String getMoviesVersionTag() {
+        return String.valueOf(dataVersionRepository.sumVersions(
+                DataVersionRepository.MOVIES, DataVersionRepository.DIRECTORS));
+    }
+
+    /**
+     * Served from the in-memory {@link MovieCatalog} when it is enabled and loaded, unless the
+     * filter searches titles. The method only joins an existing transaction so that path never
+     * borrows a connection; the database path runs in its own read-only transaction. Title
+     * searches are ordered by relevance, so they page by offset only and are counted by a query
+     * rather than from the filter count buckets.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
     public PageResponse<MovieListDto> searchMovies(MovieFilterRequest filter) {
-        Specification<Movie> spec = Specification.where(MovieSpecification.hasGenre(filter.genre()))
-                .and(MovieSpecification.hasReleaseYear(filter.releaseYear()))
-                .and(MovieSpecification.hasDirectorId(filter.directorId()));
-        int page = filter.page() != null ? filter.page() : 0;
+        MovieCatalog catalog = movieCatalog.getIfAvailable();
+        if (catalog != null && (!catalog.isReady() || filter.hasTitle())) {
+            catalog = null;
+        }
         int size = filter.size() != null ? filter.size() : 10;
+        if (filter.usesKeyset()) {
+            if (filter.hasTitle()) {
+                throw new IllegalArgumentException("Title search does not support keyset pagination");
+            }
+            return searchAfterCursor(catalog, filter, size);
+        }
+
+        int page = filter.page() != null ? filter.page() : 0;
         Pageable pageable = PageRequest.of(page, size);
-        Page<Movie> pageResult = movieRepository.findAll(spec, pageable);
+        if (catalog != null) {
+            MovieCatalog.CatalogPage result = catalog.search(filter, null, pageable.getOffset(), size);
+            return offsetPage(result.rows(), result.total(), size);
+        }
+        return inReadOnlyTransaction(() -> {
+            Specification<Movie> spec = MovieSpecification.fromFilter(filter);
+            List<MovieListDto> content = movieRepository.findListDtos(spec, pageable);
+            long total;
+            if (pageable.getOffset() == 0 && content.size() < size) {
+                total = content.size();
+            } else if (filter.hasTitle()) {
+                total = movieRepository.count(spec);
+            } else {
+                total = movieRepository.countFromBuckets(filter.genre(), filter.releaseYear(), filter.directorId());
+            }
+            return offsetPage(content, total, size);
+        });
+    }
 
-        List<MovieListDto> content = pageResult.getContent().stream()
-                .map(movieMapper::toListDto)
-                .toList();
+    @Transactional(readOnly = true)
+    @Override
+    public MovieFacetsDto getFacets(MovieFilterRequest filter) {
+        return movieRepository.countFacets(filter.genre(), filter.releaseYear(), filter.directorId(), filter.title());
+    }
 
+    /**
+     * Served from the {@link TitleSuggestIndex} without a database round trip once it is loaded;
+     * before that, from a case-insensitive (but accent-sensitive) LIKE query.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public List<MovieSuggestionDto> suggestTitles(String query, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        if (query == null || TitleSuggestIndex.fold(query).isEmpty()) {
+            return List.of();
+        }
+        if (titleSuggestIndex.isReady()) {
+            return titleSuggestIndex.suggest(query, limit);
+        }
+        String prefix = LikePatterns.startingWith(query.strip().toLowerCase(Locale.ROOT));
+        return movieRepository.findSuggestions(prefix, Limit.of(limit));
+    }
+
+    private static PageResponse<MovieListDto> offsetPage(List<MovieListDto> content, long total, int size) {
         return PageResponse.<MovieListDto>builder()
                 .list(content)
-                .totalPages(pageResult.getTotalPages())
-                .totalElements(pageResult.getTotalElements())
+                .totalPages((int) ((total + size - 1) / size))
+                .totalElements(total)
                 .build();
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public byte[] generateCsvReport(MovieFilterRequest filter) {
-        Specification<Movie> spec = Specification.where(MovieSpecification.hasGenre(filter.genre()))
-                .and(MovieSpecification.hasReleaseYear(filter.releaseYear()))
-                .and(MovieSpecification.hasDirectorId(filter.directorId()));
-
-        List<Movie> movies = movieRepository.findAll(spec);
-        StringBuilder csvBuilder = new StringBuilder();
-        csvBuilder.append("ID,Title,Year,Genre,Director\n");
-
-        for (Movie movie : movies) {
-            csvBuilder.append(movie.getId()).append(",")
-                    .append("\"").append(movie.getTitle()
-                            .replace("\"", "\"\"")).append("\",")
-                    .append(movie.getReleaseYear()).append(",")
-                    .append(movie.getGenre()).append(",")
-                    .append("\"").append(movie.getDirector().getName()).append("\"\n");
+    private <T> T inReadOnlyTransaction(Supplier<T> query) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return readOnlyTransaction.execute(status -> query.get());
+    }
+
+    private PageResponse<MovieListDto> searchAfterCursor(MovieCatalog catalog, MovieFilterRequest filter, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
         }
+        MovieCursor after = filter.cursor() != null ? MovieCursor.decode(filter.cursor()) : null;
+        List<MovieListDto> rows = catalog != null
+                ? catalog.search(filter, after, 0, size + 1).rows()
+                : inReadOnlyTransaction(() ->
+                        movieRepository.findListDtosAfter(MovieSpecification.fromFilter(filter), after, size + 1));
+
+        boolean hasNext = rows.size() > size;
+        List<MovieListDto> content = hasNext ? List.copyOf(rows.subList(0, size)) : rows;
 
-        return csvBuilder.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        return PageResponse.<MovieListDto>builder()
+                .list(content)
+                .nextCursor(hasNext ? MovieCursor.after(content.get(size - 1)).encode() : null)
+                .build();
     }
 
     @Override
-    public ImportResultDto importMovies(MultipartFile file) {
-        int success = 0;
-        int failed = 0;
-
-        try {
-            List<MovieRequestDto> dtos = objectMapper.readValue(file.getInputStream(), new TypeReference<>() {});
-
-            for (MovieRequestDto dto : dtos) {
-                try {
-                    createMovie(dto);
-                    success++;
-                } catch (Exception e) {
-                    failed++;
-                }
+    @DbBulkhead(DbBulkhead.Partition.BULK)
+    @Transactional(readOnly = true)
+    public void generateCsvReport(MovieFilterRequest filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), CSV_BUFFER_SIZE);
+        MovieCsvWriter.writeHeader(writer);
+
+        long written = 0;
+        try (Stream<MovieListDto> rows = movieRepository.streamListDtos(MovieSpecification.fromFilter(filter))) {
+            for (Iterator<MovieListDto> it = rows.iterator(); it.hasNext(); written++) {
+                MovieCsvWriter.writeRow(writer, it.next());
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse JSON file", e);
+        } finally {
+            movieMetrics.reportRows(written);
         }
 
-        return ImportResultDto.builder()
-                .successCount(success)
-                .failedCount(failed)
-                .build();
+        writer.flush();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportJobDto importMovies(MultipartFile file) {
+        return movieImportJobs.submit(file);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ImportJobDto getImportJob(UUID jobId) {
+        return movieImportJobs.find(jobId);
     }
 }
@@ -0,0 +1,77 @@
+package profit.springrest.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import profit.springrest.data.Director;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares movie insert throughput with JDBC batching switched off (batch size 1, which is what
+ * IDENTITY ids forced) and with the configured batch size that sequence ids make possible.
+ * Every run is rolled back, so the local database is left untouched.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class MovieInsertBenchmarkTest {
+    private static final int ROWS = 20_000;
+    private static final int FLUSH_EVERY = 1_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Batched sequence inserts outperform row-by-row inserts")
+    void batchedInsertThroughput() {
+        insertRowsPerSecond(50);
+
+        double unbatched = insertRowsPerSecond(1);
+        double batched = insertRowsPerSecond(50);
+
+        System.out.printf("movie inserts: batch size 1 -> %.0f rows/s, batch size 50 -> %.0f rows/s (x%.1f)%n",
+                unbatched, batched, batched / unbatched);
+        assertTrue(batched > unbatched);
+    }
+
+    private double insertRowsPerSecond(int jdbcBatchSize) {
+        return transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+
+            Director director = new Director();
+            director.setName("Benchmark director " + System.nanoTime());
+            entityManager.persist(director);
+            entityManager.flush();
+
+            long started = System.nanoTime();
+            for (int i = 0; i < ROWS; i++) {
+                Movie movie = new Movie();
+                movie.setTitle("Benchmark movie " + i);
+                movie.setReleaseYear(1900 + i % 120);
+                movie.setGenre(Genres.values()[i % Genres.values().length]);
+                movie.setDirector(director);
+                entityManager.persist(movie);
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    director = entityManager.getReference(Director.class, director.getId());
+                }
+            }
+            entityManager.flush();
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+            status.setRollbackOnly();
+            return ROWS / seconds;
+        });
+    }
+}
@@ -0,0 +1,336 @@
+package profit.springrest.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import profit.springrest.data.Genres;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives a mixed workload over HTTP against the running application and the local PostgreSQL,
+ * and fails when the p99, throughput or error-rate thresholds in {@code load-test.properties}
+ * are missed. The seeded catalog and everything written during the run are deleted afterwards.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.threads.virtual.enabled=true", "management.server.port=-1"})
+@TestPropertySource(locations = "classpath:load-test.properties")
+class MovieLoadTest {
+    private static final Genres[] GENRES = Genres.values();
+    private static final int UPLOAD_ROWS = 50;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment environment;
+
+    private LoadSettings settings;
+    private String prefix;
+    private long[] movieIds;
+    private long[] directorIds;
+    private HttpClient client;
+
+    @BeforeEach
+    void seed() {
+        settings = Binder.get(environment).bind("load", LoadSettings.class).get();
+        prefix = "Load director " + System.nanoTime() + " ";
+        jdbcTemplate.update("""
+                insert into directors (id, name)
+                select nextval('directors_seq'), ? || g from generate_series(1, ?) g
+                """, prefix, settings.directors());
+        jdbcTemplate.update("""
+                insert into movies (id, title, release_year, genre, director_id)
+                select nextval('movies_seq'),
+                       'Load movie ' || g,
+                       1900 + g % 120,
+                       (array['ACTION', 'DRAMA', 'COMEDY', 'HORROR', 'SCI_FI'])[1 + g % 5],
+                       d.ids[1 + g % array_length(d.ids, 1)]
+                from generate_series(1, ?) g,
+                     (select array_agg(id) as ids from directors where name like ? || '%') d
+                """, settings.catalogSize(), prefix);
+        jdbcTemplate.execute("analyze movies");
+
+        directorIds = jdbcTemplate.queryForList("select id from directors where name like ? || '%'", Long.class, prefix)
+                .stream().mapToLong(Long::longValue).toArray();
+        movieIds = jdbcTemplate.queryForList("""
+                        select m.id from movies m join directors d on d.id = m.director_id
+                        where d.name like ? || '%'
+                        """, Long.class, prefix)
+                .stream().mapToLong(Long::longValue).toArray();
+
+        client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        client.close();
+        // movies (seeded, uploaded and created during the run) go with their directors
+        jdbcTemplate.update("delete from directors where name like ? || '%'", prefix);
+    }
+
+    @Test
+    @DisplayName("Mixed workload meets the p99 and throughput thresholds")
+    void mixedWorkload() throws InterruptedException {
+        drive(settings.warmup());
+        RunResult result = drive(settings.duration());
+        result.print(settings);
+
+        List<Executable> checks = new ArrayList<>();
+        for (Route route : Route.values()) {
+            Histogram histogram = result.latencies().get(route);
+            Long limitMs = settings.p99Ms().get(route.key);
+            assertNotNull(limitMs, () -> "No p99 threshold configured for " + route.key);
+            checks.add(() -> assertTrue(histogram.getTotalCount() > 0, () -> route.key + " was never called"));
+            checks.add(() -> {
+                double p99Ms = histogram.getValueAtPercentile(99) / 1000.0;
+                assertTrue(p99Ms <= limitMs, () -> "%s p99 %.1f ms > %d ms".formatted(route.key, p99Ms, limitMs));
+            });
+        }
+        checks.add(() -> assertTrue(result.throughput() >= settings.minThroughputRps(),
+                () -> "throughput %.1f req/s < %.1f req/s".formatted(result.throughput(), settings.minThroughputRps())));
+        checks.add(() -> assertTrue(result.errorRate() <= settings.maxErrorRate(),
+                () -> "error rate %.4f > %.4f".formatted(result.errorRate(), settings.maxErrorRate())));
+        assertAll(checks);
+    }
+
+    /**
+     * Starts one operation every 1/targetRps seconds on its own virtual thread, waiting only when
+     * max-concurrency operations are already in flight.
+     */
+    private RunResult drive(Duration duration) throws InterruptedException {
+        RunResult result = new RunResult();
+        Semaphore inFlight = new Semaphore(settings.maxConcurrency());
+        long interval = TimeUnit.SECONDS.toNanos(1) / settings.targetRps();
+        long started = System.nanoTime();
+        long end = started + duration.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; started + i * interval < end; i++) {
+                long scheduled = started + i * interval;
+                LockSupport.parkNanos(scheduled - System.nanoTime());
+                inFlight.acquire();
+                clients.submit(() -> {
+                    try {
+                        runOperation(scheduled, result);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        result.elapsedNanos = System.nanoTime() - started;
+        return result;
+    }
+
+    private void runOperation(long scheduled, RunResult result) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int pick = random.nextInt(100);
+        if (pick < 50) {
+            call(Route.GET_MOVIE, scheduled, result, get("/api/movie/" + movieIds[random.nextInt(movieIds.length)]));
+        } else if (pick < 75) {
+            call(Route.LIST, scheduled, result, post("/api/movie/_list", listFilter(random)));
+        } else if (pick < 80) {
+            call(Route.REPORT, scheduled, result, post("/api/movie/_report",
+                    "{\"directorId\": %d}".formatted(randomDirector(random))));
+        } else if (pick < 83) {
+            call(Route.UPLOAD, scheduled, result, upload(random));
+        } else {
+            crud(scheduled, result, random);
+        }
+    }
+
+    private void crud(long scheduled, RunResult result, ThreadLocalRandom random) {
+        String body = movieJson(random, "Load CRUD movie");
+        HttpResponse<byte[]> created = call(Route.CREATE_MOVIE, scheduled, result, post("/api/movie", body));
+        if (created == null || created.statusCode() != 201) {
+            return;
+        }
+        long id = objectMapper.readTree(created.body()).get("id").asLong();
+        call(Route.UPDATE_MOVIE, System.nanoTime(), result, HttpRequest.newBuilder(uri("/api/movie/" + id))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(movieJson(random, "Load CRUD movie updated")))
+                .build());
+        call(Route.DELETE_MOVIE, System.nanoTime(), result, HttpRequest.newBuilder(uri("/api/movie/" + id))
+                .DELETE()
+                .build());
+    }
+
+    private HttpResponse<byte[]> call(Route route, long scheduled, RunResult result, HttpRequest request) {
+        HttpResponse<byte[]> response = null;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            // counted as an error below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        result.latencies.get(route).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled));
+        if (response == null || response.statusCode() >= 400) {
+            result.errors.increment();
+        }
+        return response;
+    }
+
+    private String listFilter(ThreadLocalRandom random) {
+        String genre = random.nextBoolean() ? "\"" + GENRES[random.nextInt(GENRES.length)] + "\"" : "null";
+        String year = random.nextInt(4) == 0 ? String.valueOf(1900 + random.nextInt(120)) : "null";
+        String director = random.nextInt(4) == 0 ? String.valueOf(randomDirector(random)) : "null";
+        return "{\"genre\": %s, \"releaseYear\": %s, \"directorId\": %s, \"page\": %d, \"size\": 20}"
+                .formatted(genre, year, director, random.nextInt(10));
+    }
+
+    private String movieJson(ThreadLocalRandom random, String title) {
+        return "{\"title\": \"%s\", \"releaseYear\": %d, \"genre\": \"%s\", \"directorId\": %d}".formatted(
+                title, 1900 + random.nextInt(120), GENRES[random.nextInt(GENRES.length)], randomDirector(random));
+    }
+
+    private HttpRequest upload(ThreadLocalRandom random) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < UPLOAD_ROWS; i++) {
+            json.append(i == 0 ? "" : ",").append(movieJson(random, "Load upload movie " + i));
+        }
+        json.append(']');
+
+        String boundary = "load-" + random.nextLong();
+        String body = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"movies.json\"\r\n"
+                + "Content-Type: application/json\r\n\r\n"
+                + json + "\r\n"
+                + "--" + boundary + "--\r\n";
+        return HttpRequest.newBuilder(uri("/api/movie/upload"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private long randomDirector(ThreadLocalRandom random) {
+        return directorIds[random.nextInt(directorIds.length)];
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private enum Route {
+        GET_MOVIE("get-movie"),
+        LIST("list"),
+        REPORT("report"),
+        UPLOAD("upload"),
+        CREATE_MOVIE("create-movie"),
+        UPDATE_MOVIE("update-movie"),
+        DELETE_MOVIE("delete-movie");
+
+        private final String key;
+
+        Route(String key) {
+            this.key = key;
+        }
+    }
+
+    record LoadSettings(
+            int catalogSize,
+            int directors,
+            int targetRps,
+            int maxConcurrency,
+            Duration warmup,
+            Duration duration,
+            double minThroughputRps,
+            double maxErrorRate,
+            Map<String, Long> p99Ms
+    ) {
+    }
+
+    private static final class RunResult {
+        private final Map<Route, Histogram> latencies = new EnumMap<>(Route.class);
+        private final LongAdder errors = new LongAdder();
+        private long elapsedNanos;
+
+        private RunResult() {
+            for (Route route : Route.values()) {
+                latencies.put(route, new ConcurrentHistogram(3));
+            }
+        }
+
+        private Map<Route, Histogram> latencies() {
+            return latencies;
+        }
+
+        private long requests() {
+            return latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        }
+
+        private double throughput() {
+            return requests() / (elapsedNanos / 1e9);
+        }
+
+        private double errorRate() {
+            return requests() == 0 ? 0 : (double) errors.sum() / requests();
+        }
+
+        private void print(LoadSettings settings) {
+            System.out.printf("load test: %d requests in %.1f s, %.1f req/s (target %d), error rate %.4f%n",
+                    requests(), elapsedNanos / 1e9, throughput(), settings.targetRps(), errorRate());
+            System.out.printf("%-14s %8s %10s %10s %10s %10s%n", "route", "count", "p50 ms", "p99 ms", "max ms", "limit ms");
+            for (Route route : Route.values()) {
+                Histogram histogram = latencies.get(route);
+                System.out.printf("%-14s %8d %10.1f %10.1f %10.1f %10s%n", route.key, histogram.getTotalCount(),
+                        histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                        histogram.getMaxValue() / 1000.0, settings.p99Ms().get(route.key));
+            }
+        }
+    }
+}
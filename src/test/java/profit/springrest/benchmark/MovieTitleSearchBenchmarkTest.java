@@ -0,0 +1,104 @@
+package profit.springrest.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieFilterRequest;
+import profit.springrest.dto.movie.MovieListDto;
+import profit.springrest.repository.MovieRepository;
+import profit.springrest.repository.MovieSpecification;
+import profit.springrest.repository.QueryPlans;
+import profit.springrest.repository.RecordingStatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Seeds a multi-million-row catalog (rolled back afterwards), runs substring, misspelt and
+ * genre-combined title searches through the repository, prints their latency and the
+ * {@code EXPLAIN ANALYZE} of the SQL Hibernate generated, and fails unless the trigram index
+ * serves them.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "profit.springrest.repository.RecordingStatementInspector")
+@Transactional
+class MovieTitleSearchBenchmarkTest {
+    private static final int MOVIES = 2_000_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int RUNS = 50;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        long directorId = jdbcTemplate.queryForObject("""
+                insert into directors (id, name) values (nextval('directors_seq'), ?) returning id
+                """, Long.class, "Title benchmark director " + System.nanoTime());
+        jdbcTemplate.update("""
+                insert into movies (id, title, release_year, genre, director_id)
+                select nextval('movies_seq'),
+                       (array['Silent', 'Broken', 'Golden', 'Hidden', 'Burning', 'Frozen', 'Crimson'])[1 + g % 7]
+                           || ' ' || (array['River', 'Empire', 'Harbor', 'Garden', 'Station', 'Mirror'])[1 + g / 7 % 6]
+                           || ' ' || g,
+                       1900 + g % 120,
+                       (array['ACTION', 'DRAMA', 'COMEDY', 'HORROR', 'SCI_FI'])[1 + g % 5],
+                       ?
+                from generate_series(1, ?) g
+                """, directorId, MOVIES);
+        jdbcTemplate.execute("analyze movies");
+    }
+
+    @Test
+    @DisplayName("Title search over millions of rows is answered from the trigram index")
+    void titleSearchLatency() {
+        search("substring", new MovieFilterRequest(null, null, null, 0, PAGE_SIZE, null, null, "Harbor 123456"));
+        search("misspelt", new MovieFilterRequest(null, null, null, 0, PAGE_SIZE, null, null, "Frozn Harbr 1234567"));
+        search("with genre", new MovieFilterRequest(null, Genres.COMEDY, null, 0, PAGE_SIZE, null, null, "Silent Mirror 77"));
+    }
+
+    private void search(String name, MovieFilterRequest filter) {
+        Specification<Movie> spec = MovieSpecification.fromFilter(filter);
+        PageRequest page = PageRequest.of(0, PAGE_SIZE);
+
+        RecordingStatementInspector.clear();
+        List<MovieListDto> rows = movieRepository.findListDtos(spec, page);
+        String sql = RecordingStatementInspector.lastSelect();
+        assertFalse(rows.isEmpty(), name);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            movieRepository.findListDtos(spec, page);
+        }
+        double millis = (System.nanoTime() - started) / 1_000_000.0 / RUNS;
+
+        String plan = explainAnalyze(sql, filter);
+        System.out.printf("title search (%s, %d movies): %.2f ms/query, first hit '%s'%n%s%n",
+                name, MOVIES, millis, rows.getFirst().title(), plan);
+        assertTrue(plan.contains("idx_movie_title_trgm"), () -> name + "\n" + plan);
+        assertFalse(plan.contains("Seq Scan on movies"), () -> name + "\n" + plan);
+    }
+
+    // Bind order: genre, LIKE pattern and term in WHERE, term in ORDER BY, then the page size.
+    private String explainAnalyze(String sql, MovieFilterRequest filter) {
+        List<Object> values = new ArrayList<>();
+        if (filter.genre() != null) values.add(filter.genre().name());
+        values.addAll(List.of("%" + filter.title() + "%", filter.title(), filter.title(), PAGE_SIZE));
+        return QueryPlans.explainAnalyze(jdbcTemplate, sql, values);
+    }
+}
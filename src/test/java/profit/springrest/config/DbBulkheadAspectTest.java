@@ -0,0 +1,84 @@
+package profit.springrest.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import profit.springrest.config.DbBulkhead.Partition;
+import profit.springrest.exception.BulkheadFullException;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DbBulkheadAspectTest {
+    @Mock
+    private DataSource dataSource;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DbBulkheadAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aspect = new DbBulkheadAspect(new BulkheadProperties(1, 1, Duration.ofMillis(50)), dataSource, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Nested calls on the same thread reuse the permit already held")
+    void nestedCallsAreReentrant() throws Throwable {
+        ProceedingJoinPoint inner = mock(ProceedingJoinPoint.class);
+        when(inner.proceed()).thenReturn("inner");
+        ProceedingJoinPoint outer = mock(ProceedingJoinPoint.class);
+        when(outer.proceed()).thenAnswer(invocation -> aspect.guard(inner, Partition.INTERACTIVE));
+
+        assertEquals("inner", aspect.guard(outer, Partition.INTERACTIVE));
+        assertEquals(1.0, meterRegistry.get("db.bulkhead.available").tag("partition", "interactive").gauge().value());
+    }
+
+    @Test
+    @DisplayName("A busy bulk partition does not block interactive calls and rejects further bulk calls")
+    void partitionsAreIsolated() throws Throwable {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ProceedingJoinPoint longImport = mock(ProceedingJoinPoint.class);
+        when(longImport.proceed()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        ProceedingJoinPoint lookup = mock(ProceedingJoinPoint.class);
+        when(lookup.proceed()).thenReturn("movie");
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+                try {
+                    aspect.guard(longImport, Partition.BULK);
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertEquals("movie", aspect.guard(lookup, Partition.INTERACTIVE));
+            assertThrows(BulkheadFullException.class, () -> aspect.guard(lookup, Partition.BULK));
+
+            release.countDown();
+            running.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(2, meterRegistry.get("db.bulkhead.wait").tag("partition", "bulk").timer().count());
+    }
+}
@@ -0,0 +1,209 @@
+package profit.springrest.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import profit.springrest.dto.director.DirectorRequestDto;
+import profit.springrest.dto.director.DirectorResponseDto;
+import profit.springrest.exception.IdempotencyConflictException;
+import profit.springrest.exception.IdempotencyKeyReusedException;
+import profit.springrest.service.idempotency.IdempotentResponse;
+import profit.springrest.service.idempotency.InMemoryIdempotencyStore;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyAspectTest {
+    private static final String KEY = "DirectorController.createDirector:abc";
+    private static final String FINGERPRINT = "0".repeat(64);
+
+    private static final JsonMapper OBJECT_MAPPER = JsonMapper.builder().build();
+
+    private InMemoryIdempotencyStore store;
+    private IdempotencyAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyProperties properties = new IdempotencyProperties("memory", 2, DataSize.ofKilobytes(1),
+                Duration.ofHours(1), Duration.ofMillis(200), 255);
+        store = new InMemoryIdempotencyStore(properties, OBJECT_MAPPER);
+        aspect = new IdempotencyAspect(store, properties, OBJECT_MAPPER);
+    }
+
+    @Test
+    @DisplayName("A retried request is answered from the store without running the handler again")
+    void retryIsReplayed() throws Throwable {
+        ProceedingJoinPoint handler = mock(ProceedingJoinPoint.class);
+        when(handler.proceed()).thenReturn(ResponseEntity.created(URI.create("/api/director/1"))
+                .body(new DirectorResponseDto(1L, "Nolan")));
+        String fingerprint = aspect.fingerprint(new Object[]{new DirectorRequestDto("Nolan")});
+
+        ResponseEntity<?> first = (ResponseEntity<?>) aspect.execute(handler, KEY, fingerprint, DirectorResponseDto.class);
+        ResponseEntity<?> retry = (ResponseEntity<?>) aspect.execute(handler, KEY, fingerprint, DirectorResponseDto.class);
+
+        verify(handler, times(1)).proceed();
+        assertNull(first.getHeaders().getFirst(IdempotencyAspect.REPLAYED_HEADER));
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(new DirectorResponseDto(1L, "Nolan"), retry.getBody());
+        assertEquals(URI.create("/api/director/1"), retry.getHeaders().getLocation());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyAspect.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Reusing a key with different arguments is rejected")
+    void reusedKeyIsRejected() throws Throwable {
+        ProceedingJoinPoint handler = mock(ProceedingJoinPoint.class);
+        when(handler.proceed()).thenReturn(ResponseEntity.ok(new DirectorResponseDto(1L, "Nolan")));
+
+        aspect.execute(handler, KEY, aspect.fingerprint(new Object[]{new DirectorRequestDto("Nolan")}), DirectorResponseDto.class);
+
+        String other = aspect.fingerprint(new Object[]{new DirectorRequestDto("Villeneuve")});
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> aspect.execute(handler, KEY, other, DirectorResponseDto.class));
+        verify(handler, times(1)).proceed();
+    }
+
+    @Test
+    @DisplayName("Uploads are fingerprinted by file name and content")
+    void uploadFingerprint() {
+        String first = aspect.fingerprint(new Object[]{new MockMultipartFile("file", "movies.json", null, "[1]".getBytes())});
+        String same = aspect.fingerprint(new Object[]{new MockMultipartFile("file", "movies.json", null, "[1]".getBytes())});
+        String edited = aspect.fingerprint(new Object[]{new MockMultipartFile("file", "movies.json", null, "[2]".getBytes())});
+        String renamed = aspect.fingerprint(new Object[]{new MockMultipartFile("file", "films.json", null, "[1]".getBytes())});
+
+        assertEquals(first, same);
+        assertNotEquals(first, edited);
+        assertNotEquals(first, renamed);
+    }
+
+    @Test
+    @DisplayName("A duplicate arriving while the first request runs waits for its response")
+    void inFlightDuplicateWaits() throws Throwable {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ProceedingJoinPoint handler = mock(ProceedingJoinPoint.class);
+        when(handler.proceed()).thenAnswer(invocation -> {
+            runs.incrementAndGet();
+            started.countDown();
+            release.await();
+            return ResponseEntity.ok(new DirectorResponseDto(1L, "Nolan"));
+        });
+
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> call(handler));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        CompletableFuture<Object> duplicate = CompletableFuture.supplyAsync(() -> call(handler));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals(new DirectorResponseDto(1L, "Nolan"), ((ResponseEntity<?>) first.get(1, TimeUnit.SECONDS)).getBody());
+        ResponseEntity<?> replayed = (ResponseEntity<?>) duplicate.get(1, TimeUnit.SECONDS);
+        assertEquals(new DirectorResponseDto(1L, "Nolan"), replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyAspect.REPLAYED_HEADER));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    @DisplayName("A duplicate gives up with 409 once the first request outlasts max-wait")
+    void inFlightDuplicateTimesOut() throws Throwable {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ProceedingJoinPoint slow = mock(ProceedingJoinPoint.class);
+        when(slow.proceed()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return ResponseEntity.ok(new DirectorResponseDto(1L, "Nolan"));
+        });
+
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> call(slow));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        try {
+            assertThrows(IdempotencyConflictException.class, () -> aspect.execute(slow, KEY, FINGERPRINT, DirectorResponseDto.class));
+        } finally {
+            release.countDown();
+            first.get(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("A failed request stores nothing, so the retry runs the handler")
+    void failureIsNotStored() throws Throwable {
+        ProceedingJoinPoint handler = mock(ProceedingJoinPoint.class);
+        when(handler.proceed())
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(ResponseEntity.ok(new DirectorResponseDto(1L, "Nolan")));
+
+        assertThrows(IllegalStateException.class, () -> aspect.execute(handler, KEY, FINGERPRINT, DirectorResponseDto.class));
+        ResponseEntity<?> retry = (ResponseEntity<?>) aspect.execute(handler, KEY, FINGERPRINT, DirectorResponseDto.class);
+
+        assertNull(retry.getHeaders().getFirst(IdempotencyAspect.REPLAYED_HEADER));
+        verify(handler, times(2)).proceed();
+    }
+
+    @Test
+    @DisplayName("The memory store drops the oldest response beyond max-entries and expired ones")
+    void memoryStoreIsBounded() {
+        IdempotentResponse response = new IdempotentResponse(FINGERPRINT, 200, Map.of(), null);
+        store.save("a", response);
+        store.save("b", response);
+        store.save("c", response);
+
+        assertNull(store.find("a", Void.class));
+        assertNotNull(store.find("b", Void.class));
+        assertNotNull(store.find("c", Void.class));
+
+        InMemoryIdempotencyStore expiring = new InMemoryIdempotencyStore(new IdempotencyProperties(
+                "memory", 10, DataSize.ofKilobytes(1), Duration.ZERO, Duration.ofSeconds(1), 255), OBJECT_MAPPER);
+        expiring.save("a", response);
+        assertNull(expiring.find("a", Void.class));
+    }
+
+    @Test
+    @DisplayName("The memory store keeps at most max-size of bodies and skips a body larger than that")
+    void memoryStoreIsBoundedBySize() {
+        InMemoryIdempotencyStore sized = new InMemoryIdempotencyStore(new IdempotencyProperties(
+                "memory", 10, DataSize.ofBytes(100), Duration.ofHours(1), Duration.ofSeconds(1), 255), OBJECT_MAPPER);
+        // "x".repeat(40) serializes to 42 bytes, 43 with the key
+        sized.save("a", withBody("x".repeat(40)));
+        sized.save("b", withBody("x".repeat(40)));
+        sized.save("c", withBody("x".repeat(40)));
+        sized.save("d", withBody("x".repeat(100)));
+
+        assertNull(sized.find("a", String.class));
+        assertNotNull(sized.find("b", String.class));
+        assertNotNull(sized.find("c", String.class));
+        assertNull(sized.find("d", String.class));
+    }
+
+    private static IdempotentResponse withBody(Object body) {
+        return new IdempotentResponse(FINGERPRINT, 200, Map.of(), body);
+    }
+
+    private Object call(ProceedingJoinPoint handler) {
+        try {
+            return aspect.execute(handler, KEY, FINGERPRINT, DirectorResponseDto.class);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package profit.springrest.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import profit.springrest.config.SingleFlightAspect.FlightKey;
+import profit.springrest.exception.EntityNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SingleFlightAspectTest {
+    private static final int CALLERS = 20;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlightAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aspect = new SingleFlightAspect(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Concurrent calls with equal arguments share one execution and its result")
+    void concurrentCallsShareOneExecution() throws Throwable {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ProceedingJoinPoint query = mock(ProceedingJoinPoint.class);
+        when(query.proceed()).thenAnswer(invocation -> {
+            runs.incrementAndGet();
+            release.await();
+            return "movie 1";
+        });
+
+        List<CompletableFuture<Object>> calls = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CALLERS)) {
+            for (int i = 0; i < CALLERS; i++) {
+                calls.add(CompletableFuture.supplyAsync(() -> call(new FlightKey("movie", List.of(1L)), query), executor));
+            }
+            waitForFollowers("movie", CALLERS - 1);
+            release.countDown();
+            for (CompletableFuture<Object> call : calls) {
+                assertEquals("movie 1", call.get(1, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(1, runs.get());
+        assertEquals(1.0, meterRegistry.get("singleflight.calls").tags("name", "movie", "role", "leader").counter().count());
+        assertEquals(CALLERS - 1.0, meterRegistry.get("singleflight.calls").tags("name", "movie", "role", "follower").counter().count());
+    }
+
+    @Test
+    @DisplayName("Followers get the leader's exception, and the next call runs again")
+    void exceptionIsSharedButNotKept() throws Throwable {
+        CountDownLatch release = new CountDownLatch(1);
+        ProceedingJoinPoint missing = mock(ProceedingJoinPoint.class);
+        when(missing.proceed())
+                .thenAnswer(invocation -> {
+                    release.await();
+                    throw new EntityNotFoundException("Movie with id: 9 not found");
+                })
+                .thenReturn("movie 9");
+        FlightKey key = new FlightKey("movie", List.of(9L));
+
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> call(key, missing));
+        waitForLeader("movie");
+        CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> call(key, missing));
+        waitForFollowers("movie", 1);
+        release.countDown();
+
+        for (CompletableFuture<Object> call : List.of(leader, follower)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> call.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(EntityNotFoundException.class, e.getCause());
+        }
+        assertEquals("movie 9", aspect.coalesce(key, missing));
+    }
+
+    @Test
+    @DisplayName("Calls with different arguments do not wait for each other")
+    void differentKeysRunIndependently() throws Throwable {
+        CountDownLatch release = new CountDownLatch(1);
+        ProceedingJoinPoint slow = mock(ProceedingJoinPoint.class);
+        when(slow.proceed()).thenAnswer(invocation -> {
+            release.await();
+            return "movie 1";
+        });
+        ProceedingJoinPoint fast = mock(ProceedingJoinPoint.class);
+        when(fast.proceed()).thenReturn("movie 2");
+
+        CompletableFuture<Object> blocked = CompletableFuture.supplyAsync(() -> call(new FlightKey("movie", List.of(1L)), slow));
+        waitForLeader("movie");
+        try {
+            assertEquals("movie 2", aspect.coalesce(new FlightKey("movie", List.of(2L)), fast));
+            assertEquals("movie 2", aspect.coalesce(new FlightKey("movie-version", List.of(1L)), fast));
+        } finally {
+            release.countDown();
+        }
+        assertEquals("movie 1", blocked.get(1, TimeUnit.SECONDS));
+    }
+
+    private Object call(FlightKey key, ProceedingJoinPoint joinPoint) {
+        try {
+            return aspect.coalesce(key, joinPoint);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void waitForLeader(String name) throws InterruptedException {
+        waitForCount(name, "leader", 1);
+    }
+
+    private void waitForFollowers(String name, int followers) throws InterruptedException {
+        waitForCount(name, "follower", followers);
+    }
+
+    private void waitForCount(String name, String role, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            var counter = meterRegistry.find("singleflight.calls").tags("name", name, "role", role).counter();
+            if (counter != null && counter.count() >= expected) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("Expected " + expected + " " + role + " calls for " + name);
+    }
+}
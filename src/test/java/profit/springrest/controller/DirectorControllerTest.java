@@ -7,15 +7,23 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import profit.springrest.dto.director.DirectorDeleteRequestDto;
+import profit.springrest.dto.director.DirectorDeleteResultDto;
 import profit.springrest.dto.director.DirectorRequestDto;
+import profit.springrest.dto.director.DirectorResolveRequestDto;
 import profit.springrest.dto.director.DirectorResponseDto;
+import profit.springrest.dto.director.DirectorUpsertResultDto;
+import profit.springrest.dto.movie.PageResponse;
 import profit.springrest.exception.EntityNotFoundException;
 import profit.springrest.service.director.DirectorService;
 import tools.jackson.databind.ObjectMapper;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,15 +42,44 @@ class DirectorControllerTest {
 
     @Test
     @DisplayName("GET /api/director - Success")
-    void findAllDirectors_Success() throws Exception {
-        when(directorService.getAllDirectors()).thenReturn(List.of(
-                new DirectorResponseDto(1L, "Test Director")
-        ));
+    void findDirectors_Success() throws Exception {
+        when(directorService.getDirectorsVersionTag()).thenReturn("7");
+        when(directorService.getDirectors("no", "Mg", 1)).thenReturn(PageResponse.<DirectorResponseDto>builder()
+                .list(List.of(new DirectorResponseDto(1L, "Nolan")))
+                .nextCursor("MQ")
+                .build());
+
+        mockMvc.perform(get("/api/director").param("name", "no").param("cursor", "Mg").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""))
+                .andExpect(jsonPath("$.list.size()").value(1))
+                .andExpect(jsonPath("$.list[0].name").value("Nolan"))
+                .andExpect(jsonPath("$.nextCursor").value("MQ"));
+    }
+
+    @Test
+    @DisplayName("GET /api/director - Default page size")
+    void findDirectors_DefaultSize() throws Exception {
+        when(directorService.getDirectorsVersionTag()).thenReturn("7");
+        when(directorService.getDirectors(null, null, 20)).thenReturn(PageResponse.<DirectorResponseDto>builder()
+                .list(List.of())
+                .build());
 
         mockMvc.perform(get("/api/director"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()").value(1))
-                .andExpect(jsonPath("$[0].name").value("Test Director"));
+                .andExpect(jsonPath("$.list.size()").value(0));
+    }
+
+    @Test
+    @DisplayName("GET /api/director - Not Modified (304) without loading directors")
+    void findAllDirectors_NotModified() throws Exception {
+        when(directorService.getDirectorsVersionTag()).thenReturn("7");
+
+        mockMvc.perform(get("/api/director").header("If-None-Match", "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(directorService, never()).getDirectors(any(), any(), anyInt());
     }
 
     @Test
@@ -67,6 +104,83 @@ class DirectorControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    @DisplayName("POST /api/director/_delete - Deleted and unknown ids")
+    void deleteDirectors_Success() throws Exception {
+        when(directorService.deleteDirectors(List.of(1L, 2L)))
+                .thenReturn(new DirectorDeleteResultDto(List.of(1L), List.of(2L), 42));
+
+        mockMvc.perform(post("/api/director/_delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DirectorDeleteRequestDto(List.of(1L, 2L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deletedIds[0]").value(1))
+                .andExpect(jsonPath("$.notFoundIds[0]").value(2))
+                .andExpect(jsonPath("$.moviesDeleted").value(42));
+    }
+
+    @Test
+    @DisplayName("POST /api/director/_delete - Validation Error (No Ids)")
+    void deleteDirectors_ValidationError() throws Exception {
+        mockMvc.perform(post("/api/director/_delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DirectorDeleteRequestDto(List.of()))))
+                .andExpect(status().isBadRequest());
+
+        verify(directorService, never()).deleteDirectors(any());
+    }
+
+    @Test
+    @DisplayName("POST /api/director/_upsert - Created or existing")
+    void upsertDirector_Status() throws Exception {
+        when(directorService.upsertDirector(new DirectorRequestDto("Villeneuve")))
+                .thenReturn(new DirectorUpsertResultDto(51L, "Villeneuve", true));
+        when(directorService.upsertDirector(new DirectorRequestDto("Nolan")))
+                .thenReturn(new DirectorUpsertResultDto(1L, "Nolan", false));
+
+        mockMvc.perform(post("/api/director/_upsert")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DirectorRequestDto("Villeneuve"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(51))
+                .andExpect(jsonPath("$.created").value(true));
+
+        mockMvc.perform(post("/api/director/_upsert")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DirectorRequestDto("Nolan"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.created").value(false));
+    }
+
+    @Test
+    @DisplayName("POST /api/director/_resolve - Ids for every name")
+    void resolveDirectors_Success() throws Exception {
+        when(directorService.upsertDirectors(List.of("Nolan", "Villeneuve"))).thenReturn(List.of(
+                new DirectorUpsertResultDto(1L, "Nolan", false),
+                new DirectorUpsertResultDto(51L, "Villeneuve", true)));
+
+        mockMvc.perform(post("/api/director/_resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new DirectorResolveRequestDto(List.of("Nolan", "Villeneuve")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(2))
+                .andExpect(jsonPath("$[1].id").value(51))
+                .andExpect(jsonPath("$[1].created").value(true));
+    }
+
+    @Test
+    @DisplayName("POST /api/director/_resolve - Validation Error (Blank Name)")
+    void resolveDirectors_ValidationError() throws Exception {
+        mockMvc.perform(post("/api/director/_resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DirectorResolveRequestDto(List.of("Nolan", " ")))))
+                .andExpect(status().isBadRequest());
+
+        verify(directorService, never()).upsertDirectors(any());
+    }
+
     @Test
     @DisplayName("POST /api/director - Validation Error (Empty Name)")
     void createDirector_ValidationError() throws Exception {
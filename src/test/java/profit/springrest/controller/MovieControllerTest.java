@@ -2,20 +2,37 @@ package profit.springrest.controller;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import profit.springrest.config.WebConfig;
 import profit.springrest.data.Genres;
-import profit.springrest.dto.movie.ImportResultDto;
+import profit.springrest.data.ImportJobStatus;
 import profit.springrest.dto.movie.MovieResponseDto;
+import profit.springrest.service.movie.CachedReport;
+import profit.springrest.service.movie.MovieReportCache;
 import profit.springrest.service.movie.MovieService;
 import tools.jackson.databind.ObjectMapper;
 import org.springframework.http.MediaType;
 import profit.springrest.dto.movie.*;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.mockito.ArgumentMatchers.any;
@@ -24,6 +41,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(MovieController.class)
 public class MovieControllerTest {
+    private static final byte[] CSV = "ID,Title\n1,Test\n".getBytes(StandardCharsets.UTF_8);
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -33,17 +52,89 @@ public class MovieControllerTest {
     @MockitoBean
     private MovieService movieService;
 
+    @MockitoBean
+    private MovieReportCache movieReportCache;
+
+    @TempDir
+    private Path tempDir;
+
     @Test
     @DisplayName("GET /api/movie/{id} - Success")
     void findMovie_Success() throws Exception {
         MovieResponseDto response = new MovieResponseDto(1L, "Test", 2000, Genres.DRAMA, null);
+        when(movieService.getMovieVersionTag(1L)).thenReturn("3-1");
         when(movieService.findMovieById(1L)).thenReturn(response);
 
         mockMvc.perform(get("/api/movie/{id}", 1L))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3-1\""))
+                .andExpect(header().stringValues("Vary", "Accept"))
                 .andExpect(jsonPath("$.title").value("Test"));
     }
 
+    @Test
+    @DisplayName("GET /api/movie/{id} - Not Modified (304) without loading the movie")
+    void findMovie_NotModified() throws Exception {
+        when(movieService.getMovieVersionTag(1L)).thenReturn("3-1");
+
+        mockMvc.perform(get("/api/movie/{id}", 1L).header("If-None-Match", "\"3-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3-1\""))
+                .andExpect(header().stringValues("Vary", "Accept"));
+
+        verify(movieService, never()).findMovieById(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/movie - Returns a new body once the collection version changes")
+    void findAllMovies_ChangedVersion() throws Exception {
+        when(movieService.getMoviesVersionTag()).thenReturn("12");
+        when(movieService.findAllMovies()).thenReturn(List.of(new MovieListDto(1L, "T", 2000, Genres.DRAMA, "D")));
+
+        mockMvc.perform(get("/api/movie").header("If-None-Match", "\"11\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"12\""))
+                .andExpect(jsonPath("$[0].title").value("T"));
+    }
+
+    @Test
+    @DisplayName("GET /api/movie - CBOR with its own ETag")
+    void findAllMovies_Cbor() throws Exception {
+        List<MovieListDto> movies = List.of(new MovieListDto(1L, "T", 2000, Genres.DRAMA, "D"));
+        when(movieService.getMoviesVersionTag()).thenReturn("12");
+        when(movieService.findAllMovies()).thenReturn(movies);
+
+        byte[] body = mockMvc.perform(get("/api/movie").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", "\"12-cbor\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        MovieListDto[] decoded = WebConfig.cborMapper().readValue(body, MovieListDto[].class);
+        assertEquals(movies, List.of(decoded));
+    }
+
+    @Test
+    @DisplayName("POST /api/movie/_list - Smile")
+    void searchMovies_Smile() throws Exception {
+        PageResponse<MovieListDto> page = PageResponse.<MovieListDto>builder()
+                .list(List.of(new MovieListDto(1L, "T", 2000, Genres.DRAMA, "D")))
+                .totalElements(1L)
+                .build();
+        when(movieService.searchMovies(any())).thenReturn(page);
+
+        byte[] body = mockMvc.perform(post("/api/movie/_list")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept("application/x-jackson-smile")
+                        .content(objectMapper.writeValueAsString(new MovieFilterRequest(null, null, null, 0, 10))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals("T", WebConfig.smileMapper().readTree(body).get("list").get(0).get("title").asString());
+    }
+
     @Test
     @DisplayName("POST /api/movie - Created")
     void createMovie_Success() throws Exception {
@@ -78,7 +169,7 @@ public class MovieControllerTest {
         MovieFilterRequest filter = new MovieFilterRequest(null, null, null, 0, 10);
         PageResponse<MovieListDto> pageResponse = PageResponse.<MovieListDto>builder()
                 .list(List.of(new MovieListDto(1L, "M", 2000, Genres.DRAMA, "D")))
-                .totalElements(1)
+                .totalElements(1L)
                 .totalPages(1)
                 .build();
 
@@ -91,20 +182,97 @@ public class MovieControllerTest {
                 .andExpect(jsonPath("$.totalElements").value(1));
     }
 
+    @Test
+    @DisplayName("POST /api/movie/_facets - Facet counts")
+    void getFacets_Success() throws Exception {
+        MovieFilterRequest filter = new MovieFilterRequest(null, Genres.DRAMA, null, null, null);
+        when(movieService.getFacets(filter)).thenReturn(new MovieFacetsDto(
+                Map.of(Genres.DRAMA, 4L, Genres.COMEDY, 2L),
+                Map.of(2000, 3L),
+                List.of(new MovieFacetsDto.DirectorCount(1L, "Nolan", 3L))));
+
+        mockMvc.perform(post("/api/movie/_facets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(filter)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.genres.DRAMA").value(4))
+                .andExpect(jsonPath("$.releaseYears.2000").value(3))
+                .andExpect(jsonPath("$.directors[0].name").value("Nolan"))
+                .andExpect(jsonPath("$.directors[0].count").value(3));
+    }
+
+    @Test
+    @DisplayName("GET /api/movie/_suggest - Title suggestions")
+    void suggestTitles_Success() throws Exception {
+        when(movieService.suggestTitles("mem", 10)).thenReturn(List.of(new MovieSuggestionDto(10L, "Memento", 2000)));
+
+        mockMvc.perform(get("/api/movie/_suggest").param("q", "mem"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(10L))
+                .andExpect(jsonPath("$[0].title").value("Memento"))
+                .andExpect(jsonPath("$[0].releaseYear").value(2000));
+    }
+
+    @Test
+    @DisplayName("GET /api/movie/_suggest - Bad Request (limit)")
+    void suggestTitles_BadLimit() throws Exception {
+        when(movieService.suggestTitles("mem", 500)).thenThrow(new IllegalArgumentException("Limit must be between 1 and 50"));
+
+        mockMvc.perform(get("/api/movie/_suggest").param("q", "mem").param("limit", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("POST /api/movie/_report - Download CSV")
     void generateReport_Success() throws Exception {
         MovieFilterRequest filter = new MovieFilterRequest(null, null, null, 0, 10);
-        byte[] csvContent = "ID,Title\n1,Test".getBytes();
+        when(movieReportCache.get(any())).thenReturn(cachedReport(CSV, "7"));
 
-        when(movieService.generateCsvReport(any())).thenReturn(csvContent);
-
-        mockMvc.perform(post("/api/movie/_report")
+        MvcResult mvcResult = mockMvc.perform(post("/api/movie/_report")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(filter)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Disposition", "attachment; filename=movies_report.csv"))
-                .andExpect(content().bytes(csvContent));
+                .andExpect(header().string("ETag", "\"7\""))
+                .andExpect(content().bytes(CSV));
+    }
+
+    @Test
+    @DisplayName("GET /api/movie/_report - Range request gets 206 with the requested bytes")
+    void downloadReport_Range() throws Exception {
+        when(movieService.getMoviesVersionTag()).thenReturn("7");
+        when(movieReportCache.get(any())).thenReturn(cachedReport(CSV, "7"));
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/movie/_report")
+                        .param("genre", "DRAMA")
+                        .header("Range", "bytes=3-8"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 3-8/" + CSV.length))
+                .andExpect(content().bytes(Arrays.copyOfRange(CSV, 3, 9)));
+        verify(movieReportCache).get(new MovieFilterRequest(null, Genres.DRAMA, null, null, null));
+    }
+
+    @Test
+    @DisplayName("GET /api/movie/_report - Not Modified (304) without opening the report")
+    void downloadReport_NotModified() throws Exception {
+        when(movieService.getMoviesVersionTag()).thenReturn("7");
+
+        mockMvc.perform(get("/api/movie/_report").header("If-None-Match", "\"7\""))
+                .andExpect(status().isNotModified());
+        verify(movieReportCache, never()).get(any());
+    }
+
+    private CachedReport cachedReport(byte[] content, String version) throws IOException {
+        Path file = Files.write(tempDir.resolve("report-" + version + ".csv"), content);
+        return new CachedReport(FileChannel.open(file, StandardOpenOption.READ), content.length, version);
     }
 
     @Test
@@ -117,11 +285,40 @@ public class MovieControllerTest {
                 "[{\"title\":\"Test\"}]".getBytes()
         );
 
-        ImportResultDto result = new ImportResultDto(5, 0);
-        when(movieService.importMovies(any())).thenReturn(result);
+        UUID jobId = UUID.randomUUID();
+        ImportJobDto job = ImportJobDto.builder()
+                .id(jobId)
+                .fileName("movies.json")
+                .status(ImportJobStatus.QUEUED)
+                .failures(List.of())
+                .build();
+        when(movieService.importMovies(any())).thenReturn(job);
 
         mockMvc.perform(multipart("/api/movie/upload").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/movie/upload/" + jobId))
+                .andExpect(jsonPath("$.id").value(jobId.toString()))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    @DisplayName("GET /api/movie/upload/{jobId} - Import progress")
+    void getImportJob_Success() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        ImportJobDto job = ImportJobDto.builder()
+                .id(jobId)
+                .status(ImportJobStatus.RUNNING)
+                .rowsParsed(1500)
+                .rowsSucceeded(990)
+                .rowsFailed(10)
+                .failures(List.of(new ImportFailureDto(7, "Title is required")))
+                .build();
+        when(movieService.getImportJob(jobId)).thenReturn(job);
+
+        mockMvc.perform(get("/api/movie/upload/{jobId}", jobId))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.successCount").value(5));
+                .andExpect(jsonPath("$.rowsParsed").value(1500))
+                .andExpect(jsonPath("$.rowsSucceeded").value(990))
+                .andExpect(jsonPath("$.failures[0].row").value(7));
     }
 }
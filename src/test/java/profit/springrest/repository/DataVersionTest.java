@@ -0,0 +1,74 @@
+package profit.springrest.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import profit.springrest.data.Director;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieVersion;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class DataVersionTest {
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private DataVersionRepository dataVersionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Director director;
+    private Movie movie;
+
+    @BeforeEach
+    void setUp() {
+        director = new Director();
+        director.setName("Versioned director " + System.nanoTime());
+        entityManager.persist(director);
+        movie = new Movie();
+        movie.setTitle("Versioned");
+        movie.setReleaseYear(2000);
+        movie.setGenre(Genres.DRAMA);
+        movie.setDirector(director);
+        entityManager.persist(movie);
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Movie version follows writes to the movie and to its director")
+    void movieVersionFollowsWrites() {
+        MovieVersion initial = movieRepository.findVersionById(movie.getId()).orElseThrow();
+
+        director.setName(director.getName() + " renamed");
+        entityManager.flush();
+        MovieVersion renamed = movieRepository.findVersionById(movie.getId()).orElseThrow();
+        assertNotEquals(initial.tag(), renamed.tag());
+
+        movie.setTitle("Versioned again");
+        entityManager.flush();
+        assertNotEquals(renamed.tag(), movieRepository.findVersionById(movie.getId()).orElseThrow().tag());
+    }
+
+    @Test
+    @DisplayName("Collection counters grow with every writing statement, native ones included")
+    void collectionVersionsGrow() {
+        long movies = dataVersionRepository.sumVersions(DataVersionRepository.MOVIES);
+        long directors = dataVersionRepository.sumVersions(DataVersionRepository.DIRECTORS);
+
+        entityManager.createNativeQuery("update movies set title = title where id = :id")
+                .setParameter("id", movie.getId())
+                .executeUpdate();
+
+        assertTrue(dataVersionRepository.sumVersions(DataVersionRepository.MOVIES) > movies);
+        assertEquals(directors, dataVersionRepository.sumVersions(DataVersionRepository.DIRECTORS));
+    }
+}
@@ -0,0 +1,86 @@
+package profit.springrest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import profit.springrest.data.Director;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class DirectorBulkDeleteTest {
+    private static final int MOVIES_PER_DIRECTOR = 50;
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Director> directors = new ArrayList<>();
+    private final List<Long> movieIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int d = 0; d < 3; d++) {
+            Director director = new Director();
+            director.setName("Bulk delete director " + d + " " + System.nanoTime());
+            entityManager.persist(director);
+            // the last director has no movies
+            for (int i = 0; d < 2 && i < MOVIES_PER_DIRECTOR; i++) {
+                Movie movie = new Movie();
+                movie.setTitle("Bulk deleted " + d + "-" + i);
+                movie.setReleaseYear(2000 + i % 10);
+                movie.setGenre(Genres.DRAMA);
+                movie.setDirector(director);
+                entityManager.persist(movie);
+                movieIds.add(movie.getId());
+            }
+            directors.add(director);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("deleteCascading removes directors and their movies without loading entities")
+    void deleteCascading() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Map<Long, List<Long>> deleted = directorRepository.deleteCascading(
+                List.of(directors.get(0).getId(), directors.get(2).getId(), -1L));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, deleted.size());
+        assertEquals(movieIds.subList(0, MOVIES_PER_DIRECTOR), deleted.get(directors.get(0).getId()).stream().sorted().toList());
+        assertEquals(List.of(), deleted.get(directors.get(2).getId()));
+
+        assertFalse(directorRepository.existsById(directors.get(0).getId()));
+        assertTrue(directorRepository.existsById(directors.get(1).getId()));
+        assertEquals(MOVIES_PER_DIRECTOR, movieRepository.countFromBuckets(null, null, directors.get(1).getId()));
+        assertEquals(0, movieRepository.countFromBuckets(null, null, directors.get(0).getId()));
+        assertTrue(movieRepository.findAllById(movieIds.subList(0, MOVIES_PER_DIRECTOR)).isEmpty());
+    }
+}
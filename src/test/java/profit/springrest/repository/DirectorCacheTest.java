@@ -0,0 +1,81 @@
+package profit.springrest.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import profit.springrest.data.Director;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs each step in its own committed transaction, since the second-level cache is only
+ * populated and invalidated on commit.
+ */
+@SpringBootTest
+class DirectorCacheTest {
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private Director director;
+
+    @BeforeEach
+    void setUp() {
+        director = new Director();
+        director.setName("Cached director " + System.nanoTime());
+        transactionTemplate.executeWithoutResult(status -> directorRepository.save(director));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> directorRepository.deleteById(director.getId()));
+    }
+
+    @Test
+    @DisplayName("findById and findAllCachedById are served from the cache")
+    void lookupsHitCache() {
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(directorRepository.findById(director.getId()).isPresent());
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(1, directorRepository.findAllCachedById(List.of(director.getId(), -1L)).size());
+        });
+
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    @DisplayName("existsByName is answered from the query cache until directors change")
+    void existsByNameHitsQueryCache() {
+        for (int i = 0; i < 2; i++) {
+            transactionTemplate.executeWithoutResult(status ->
+                    assertTrue(directorRepository.existsByName(director.getName())));
+        }
+        assertEquals(1, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        transactionTemplate.executeWithoutResult(status ->
+                directorRepository.findById(director.getId()).orElseThrow().setName(director.getName() + "!"));
+        transactionTemplate.executeWithoutResult(status ->
+                assertFalse(directorRepository.existsByName(director.getName())));
+        assertEquals(2, statistics.getQueryCacheMissCount());
+    }
+}
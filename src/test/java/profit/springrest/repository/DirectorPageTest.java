@@ -0,0 +1,116 @@
+package profit.springrest.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import profit.springrest.dto.director.DirectorCursor;
+import profit.springrest.dto.director.DirectorResponseDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Seeds a large director table (rolled back afterwards) and checks that keyset pages and name
+ * prefix searches return the right rows without a sequential scan.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "profit.springrest.repository.RecordingStatementInspector")
+@Transactional
+class DirectorPageTest {
+    private static final int DIRECTORS = 100_000;
+    private static final int PAGE_SIZE = 20;
+    private static final String INDEX = "idx_director_name_lower_prefix";
+
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+    private long firstId;
+
+    @BeforeEach
+    void seed() {
+        prefix = "Page director " + System.nanoTime() + " ";
+        jdbcTemplate.update("""
+                insert into directors (id, name)
+                select nextval('directors_seq'), ? || g from generate_series(1, ?) g
+                """, prefix, DIRECTORS);
+        jdbcTemplate.execute("analyze directors");
+        firstId = jdbcTemplate.queryForObject(
+                "select min(id) from directors where name like ? || '%'", Long.class, prefix);
+    }
+
+    @Test
+    @DisplayName("Keyset pages follow id order from the cursor")
+    void pageAfter() {
+        RecordingStatementInspector.clear();
+        List<DirectorResponseDto> page = directorRepository.findPageAfter(firstId, Limit.of(PAGE_SIZE));
+
+        assertEquals(PAGE_SIZE, page.size());
+        assertTrue(page.getFirst().id() > firstId);
+        assertPlan(RecordingStatementInspector.lastSelect(), List.of(firstId, PAGE_SIZE), null);
+    }
+
+    @Test
+    @DisplayName("Name prefix search ignores case and is served by the lower(name) index")
+    void pageByNamePrefix() {
+        String search = (prefix + "4242").toLowerCase();
+
+        RecordingStatementInspector.clear();
+        List<DirectorResponseDto> page = directorRepository.findPageByNamePrefixAfter(search, null, Limit.of(PAGE_SIZE));
+
+        // 4242 and 42420..42429
+        assertEquals(11, page.size());
+        assertEquals(prefix + "4242", page.getFirst().name());
+        assertPlan(RecordingStatementInspector.lastSelect(), bindValues(search, null), INDEX);
+    }
+
+    @Test
+    @DisplayName("A deep page of a prefix every director matches is one range scan in (lower(name), id) order")
+    void pageByBroadNamePrefix() {
+        String search = prefix.toLowerCase();
+        long id = jdbcTemplate.queryForObject("select id from directors where name = ?", Long.class, prefix + "5");
+        DirectorCursor after = new DirectorCursor(id, prefix + "5");
+
+        RecordingStatementInspector.clear();
+        List<DirectorResponseDto> page = directorRepository.findPageByNamePrefixAfter(search, after, Limit.of(PAGE_SIZE));
+
+        assertEquals(PAGE_SIZE, page.size());
+        assertEquals(List.of(prefix + "50", prefix + "500", prefix + "5000", prefix + "50000", prefix + "50001"),
+                page.subList(0, 5).stream().map(DirectorResponseDto::name).toList());
+        String sql = RecordingStatementInspector.lastSelect();
+        String plan = assertPlan(sql, bindValues(search, after), INDEX);
+        assertFalse(plan.contains("Sort"), () -> sql + "\n" + plan);
+    }
+
+    // Bind order: LIKE pattern, range bounds, the cursor's name (twice) and id, then the page size.
+    private static List<Object> bindValues(String search, DirectorCursor after) {
+        List<Object> values = new ArrayList<>(List.of(
+                LikePatterns.startingWith(search), search, DirectorRepositoryCustomImpl.upperBound(search)));
+        if (after != null) {
+            values.addAll(List.of(after.name(), after.name(), after.id()));
+        }
+        values.add(PAGE_SIZE);
+        return values;
+    }
+
+    private String assertPlan(String sql, List<Object> values, String requiredIndex) {
+        String plan = QueryPlans.explain(jdbcTemplate, sql, values);
+        assertFalse(plan.contains("Seq Scan on directors"), () -> sql + "\n" + plan);
+        if (requiredIndex != null) {
+            assertTrue(plan.contains(requiredIndex), () -> sql + "\n" + plan);
+        }
+        return plan;
+    }
+}
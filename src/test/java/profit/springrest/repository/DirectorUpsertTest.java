@@ -0,0 +1,162 @@
+package profit.springrest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import profit.springrest.data.Director;
+import profit.springrest.dto.director.DirectorRequestDto;
+import profit.springrest.dto.director.DirectorResponseDto;
+import profit.springrest.dto.director.DirectorUpsertResultDto;
+import profit.springrest.service.director.DirectorService;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class DirectorUpsertTest {
+    @Autowired
+    private DirectorRepository directorRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DirectorService directorService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String suffix = " " + System.nanoTime();
+
+    @Test
+    @DisplayName("upsertByName returns existing and new ids in one statement, once per name")
+    void upsertByName() {
+        Director existing = new Director();
+        existing.setName("Upsert existing" + suffix);
+        entityManager.persist(existing);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<DirectorUpsertResultDto> results = directorRepository.upsertByName(List.of(
+                "Upsert new" + suffix, existing.getName(), "Upsert new" + suffix));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, results.size());
+        assertEquals("Upsert new" + suffix, results.get(0).name());
+        assertTrue(results.get(0).created());
+        assertEquals(new DirectorUpsertResultDto(existing.getId(), existing.getName(), false), results.get(1));
+        assertTrue(directorRepository.existsById(results.get(0).id()));
+
+        assertEquals(List.of(new DirectorUpsertResultDto(results.get(0).id(), results.get(0).name(), false)),
+                directorRepository.upsertByName(List.of("Upsert new" + suffix)));
+    }
+
+    @Test
+    @DisplayName("upsertByName resolves thousands of names in one statement")
+    void upsertByName_Bulk() {
+        List<String> names = IntStream.range(0, 5000).mapToObj(i -> "Upsert bulk " + i + suffix).toList();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<DirectorUpsertResultDto> results = directorRepository.upsertByName(names);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(names, results.stream().map(DirectorUpsertResultDto::name).toList());
+        assertTrue(results.stream().allMatch(DirectorUpsertResultDto::created));
+        assertEquals(names.size(), results.stream().map(DirectorUpsertResultDto::id).distinct().count());
+
+        Director next = new Director();
+        next.setName("Upsert after bulk" + suffix);
+        entityManager.persist(next);
+        entityManager.flush();
+        assertFalse(results.stream().anyMatch(result -> result.id().equals(next.getId())));
+    }
+
+    /**
+     * Runs outside the test transaction: its row lock on a data_versions slot could otherwise
+     * block either create.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Two transactions creating the same name end in one director and one rejection")
+    void createDirector_Concurrently() throws Exception {
+        String name = "Upsert race" + suffix;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch firstInserted = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<DirectorResponseDto> first = executor.submit(() -> transaction.execute(status -> {
+                DirectorResponseDto created = directorService.createDirector(new DirectorRequestDto(name));
+                firstInserted.countDown();
+                await(commitFirst);
+                return created;
+            }));
+            assertTrue(firstInserted.await(10, TimeUnit.SECONDS));
+            Future<DirectorResponseDto> second = executor.submit(() -> transaction.execute(
+                    status -> directorService.createDirector(new DirectorRequestDto(name))));
+            // the second insert waits on the first one's uncommitted row in the unique index
+            awaitLockWaiter();
+            commitFirst.countDown();
+
+            assertEquals(name, first.get(10, TimeUnit.SECONDS).name());
+            ExecutionException rejected = assertThrows(ExecutionException.class, () -> second.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, rejected.getCause());
+            assertEquals(1, jdbcTemplate.queryForObject("select count(*) from directors where name = ?", Integer.class, name));
+        } finally {
+            commitFirst.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            transaction.executeWithoutResult(status -> jdbcTemplate.update("delete from directors where name = ?", name));
+        }
+    }
+
+    private void awaitLockWaiter() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbcTemplate.queryForObject("""
+                select count(*) from pg_stat_activity
+                where wait_event_type = 'Lock' and query like '%directors_seq%'
+                """, Integer.class) == 0) {
+            assertTrue(System.nanoTime() < deadline, "The second create never waited for the first");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package profit.springrest.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ResolvableType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+import profit.springrest.config.IdempotencyProperties;
+import profit.springrest.dto.director.DirectorResponseDto;
+import profit.springrest.dto.director.DirectorUpsertResultDto;
+import profit.springrest.service.idempotency.IdempotentResponse;
+import profit.springrest.service.idempotency.JdbcIdempotencyStore;
+import tools.jackson.databind.ObjectMapper;
+
+import java.lang.reflect.Type;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class JdbcIdempotencyStoreTest {
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final String FINGERPRINT = "a".repeat(64);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String key = "DirectorController.resolveDirectors:" + System.nanoTime();
+    private JdbcIdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new JdbcIdempotencyStore(jdbcTemplate, objectMapper,
+                new IdempotencyProperties("jdbc", 10000, DataSize.ofMegabytes(64), TTL, Duration.ofSeconds(30), 255));
+    }
+
+    @Test
+    @DisplayName("A generic body, headers and the fingerprint are read back as stored")
+    void roundTrip() {
+        Type bodyType = ResolvableType.forClassWithGenerics(List.class, DirectorUpsertResultDto.class).getType();
+        IdempotentResponse response = new IdempotentResponse(FINGERPRINT, 200,
+                Map.of("Content-Type", List.of("application/json"), "X-Trace", List.of("1", "2")),
+                List.of(new DirectorUpsertResultDto(1L, "Nolan", true), new DirectorUpsertResultDto(2L, "Villeneuve", false)));
+
+        store.save(key, response);
+        IdempotentResponse found = store.find(key, bodyType);
+
+        assertEquals(response, found);
+        assertInstanceOf(DirectorUpsertResultDto.class, ((List<?>) found.body()).getFirst());
+    }
+
+    @Test
+    @DisplayName("A second save under the same key keeps the first response")
+    void firstResponseWins() {
+        store.save(key, new IdempotentResponse(FINGERPRINT, 201, Map.of(), new DirectorResponseDto(1L, "Nolan")));
+        store.save(key, new IdempotentResponse("b".repeat(64), 200, Map.of(), new DirectorResponseDto(2L, "Villeneuve")));
+
+        IdempotentResponse found = store.find(key, DirectorResponseDto.class);
+
+        assertEquals(new IdempotentResponse(FINGERPRINT, 201, Map.of(), new DirectorResponseDto(1L, "Nolan")), found);
+    }
+
+    @Test
+    @DisplayName("Expired responses are not found and are deleted by the next save")
+    void expiredResponses() {
+        jdbcTemplate.update("""
+                        insert into idempotency_keys (idempotency_key, fingerprint, status, headers, body, created_at)
+                        values (?, ?, 200, '{}', null, ?)
+                        """,
+                key, FINGERPRINT, Timestamp.from(Instant.now().minus(TTL).minusSeconds(1)));
+
+        assertNull(store.find(key, Void.class));
+
+        store.save(key + ":next", new IdempotentResponse(FINGERPRINT, 204, Map.of(), null));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from idempotency_keys where idempotency_key = ?", Integer.class, key));
+        assertNotNull(store.find(key + ":next", Void.class));
+    }
+}
@@ -0,0 +1,102 @@
+package profit.springrest.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import profit.springrest.data.Director;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieFacetsDto;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MovieFacetsTest {
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Director first;
+    private Director second;
+
+    @BeforeEach
+    void setUp() {
+        first = director("Facet director A " + System.nanoTime());
+        second = director("Facet director B " + System.nanoTime());
+        movie("Faceted midnight 1", 1990, Genres.HORROR, first);
+        movie("Faceted midnight 2", 1990, Genres.HORROR, first);
+        movie("Faceted day 3", 1991, Genres.HORROR, first);
+        movie("Faceted day 4", 1991, Genres.COMEDY, first);
+        movie("Faceted midnight 5", 1990, Genres.COMEDY, second);
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Facets: Each facet is counted with every filter except its own")
+    void countFacets_ExcludeOwnFilter() {
+        MovieFacetsDto facets = movieRepository.countFacets(Genres.HORROR, null, first.getId(), null);
+
+        // genre facet ignores the genre filter, year facet applies both
+        assertEquals(Map.of(Genres.HORROR, 3L, Genres.COMEDY, 1L), facets.genres());
+        assertEquals(Map.of(1990, 2L, 1991, 1L), facets.releaseYears());
+        assertEquals(3L, directorCount(facets, first));
+        assertEquals(0L, directorCount(facets, second));
+    }
+
+    @Test
+    @DisplayName("Facets: Directors are counted under the genre and year filters, most movies first")
+    void countFacets_Directors() {
+        MovieFacetsDto facets = movieRepository.countFacets(Genres.COMEDY, 1990, first.getId(), null);
+
+        assertEquals(1L, directorCount(facets, second));
+        assertEquals(0L, directorCount(facets, first));
+        assertEquals(Map.of(1991, 1L), facets.releaseYears());
+        // no comedy from 1990 by the first director: zero counts are left out
+        assertEquals(Map.of(Genres.HORROR, 2L), facets.genres());
+    }
+
+    @Test
+    @DisplayName("Facets: A title search counts the movies it matches")
+    void countFacets_Title() {
+        MovieFacetsDto facets = movieRepository.countFacets(null, null, first.getId(), "Faceted midnight");
+
+        assertEquals(Map.of(Genres.HORROR, 2L), facets.genres());
+        assertEquals(Map.of(1990, 2L), facets.releaseYears());
+        assertEquals(2L, directorCount(facets, first));
+        assertEquals(1L, directorCount(facets, second));
+        assertEquals(first.getName(), facets.directors().getFirst().name());
+    }
+
+    private static long directorCount(MovieFacetsDto facets, Director director) {
+        return facets.directors().stream()
+                .filter(count -> count.id().equals(director.getId()))
+                .mapToLong(MovieFacetsDto.DirectorCount::count)
+                .findFirst()
+                .orElse(0L);
+    }
+
+    private Director director(String name) {
+        Director director = new Director();
+        director.setName(name);
+        entityManager.persist(director);
+        return director;
+    }
+
+    private void movie(String title, int year, Genres genre, Director director) {
+        Movie movie = new Movie();
+        movie.setTitle(title);
+        movie.setReleaseYear(year);
+        movie.setGenre(genre);
+        movie.setDirector(director);
+        entityManager.persist(movie);
+    }
+}
@@ -0,0 +1,89 @@
+package profit.springrest.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import profit.springrest.data.Director;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+class MovieFilterCountsTest {
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Director director;
+    private final List<Movie> movies = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        director = new Director();
+        director.setName("Filter counts director " + System.nanoTime());
+        entityManager.persist(director);
+        for (int i = 0; i < 6; i++) {
+            Movie movie = new Movie();
+            movie.setTitle("Counted " + i);
+            movie.setReleaseYear(i % 2 == 0 ? 1990 : 1991);
+            movie.setGenre(i < 4 ? Genres.HORROR : Genres.COMEDY);
+            movie.setDirector(director);
+            entityManager.persist(movie);
+            movies.add(movie);
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Buckets follow inserts for every filter combination")
+    void countsAfterInsert() {
+        assertBucketsMatchRows(null, null);
+        assertBucketsMatchRows(Genres.HORROR, null);
+        assertBucketsMatchRows(null, 1990);
+        assertBucketsMatchRows(Genres.COMEDY, 1991);
+        assertEquals(6, movieRepository.countFromBuckets(null, null, director.getId()));
+    }
+
+    @Test
+    @DisplayName("Buckets follow updates and deletes")
+    void countsAfterUpdateAndDelete() {
+        Movie moved = movies.get(0);
+        moved.setGenre(Genres.COMEDY);
+        moved.setReleaseYear(1991);
+        movieRepository.delete(movies.get(1));
+        entityManager.flush();
+
+        assertEquals(2, movieRepository.countFromBuckets(Genres.HORROR, null, director.getId()));
+        assertEquals(3, movieRepository.countFromBuckets(Genres.COMEDY, null, director.getId()));
+        assertEquals(3, movieRepository.countFromBuckets(null, 1991, director.getId()));
+        assertBucketsMatchRows(null, null);
+    }
+
+    @Test
+    @DisplayName("Buckets follow movies removed by the director cascade")
+    void countsAfterDirectorCascade() {
+        entityManager.createNativeQuery("delete from directors where id = :id")
+                .setParameter("id", director.getId())
+                .executeUpdate();
+
+        assertEquals(0, movieRepository.countFromBuckets(null, null, director.getId()));
+        assertBucketsMatchRows(null, null);
+    }
+
+    private void assertBucketsMatchRows(Genres genre, Integer releaseYear) {
+        long rows = movieRepository.count(MovieSpecification.hasGenre(genre)
+                .and(MovieSpecification.hasReleaseYear(releaseYear)));
+        assertEquals(rows, movieRepository.countFromBuckets(genre, releaseYear, null));
+    }
+}
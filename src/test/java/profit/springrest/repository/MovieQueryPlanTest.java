@@ -0,0 +1,192 @@
+package profit.springrest.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieCursor;
+import profit.springrest.dto.movie.MovieFilterRequest;
+import profit.springrest.dto.movie.MovieListDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Seeds a large catalog (rolled back afterwards), captures the SQL Hibernate generates for every
+ * non-empty genre / year / director filter combination and for title searches, and fails if
+ * PostgreSQL plans a sequential scan of movies for it.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "profit.springrest.repository.RecordingStatementInspector")
+@Transactional
+class MovieQueryPlanTest {
+    private static final int MOVIES = 200_000;
+    private static final int DIRECTORS = 500;
+    private static final int PAGE_SIZE = 10;
+    private static final Genres GENRE = Genres.DRAMA;
+    private static final int YEAR = 1950;
+    private static final String TITLE = "movie 199999";
+    private static final String TITLE_INDEX = "idx_movie_title_trgm";
+    private static final String SHORTEST_TITLE = "199";
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long directorId;
+
+    @BeforeEach
+    void seed() {
+        String prefix = "Plan director " + System.nanoTime() + " ";
+        jdbcTemplate.update("""
+                insert into directors (id, name)
+                select nextval('directors_seq'), ? || g from generate_series(1, ?) g
+                """, prefix, DIRECTORS);
+        jdbcTemplate.update("""
+                insert into movies (id, title, release_year, genre, director_id)
+                select nextval('movies_seq'),
+                       'Plan movie ' || g,
+                       1900 + g % 120,
+                       (array['ACTION', 'DRAMA', 'COMEDY', 'HORROR', 'SCI_FI'])[1 + g % 5],
+                       d.ids[1 + g % array_length(d.ids, 1)]
+                from generate_series(1, ?) g,
+                     (select array_agg(id) as ids from directors where name like ? || '%') d
+                """, MOVIES, prefix);
+        jdbcTemplate.execute("analyze movies");
+        directorId = jdbcTemplate.queryForObject(
+                "select min(id) from directors where name like ? || '%'", Long.class, prefix);
+    }
+
+    @Test
+    @DisplayName("Every filter combination is served by an index")
+    void noSequentialScans() {
+        List<Executable> checks = new ArrayList<>();
+        for (int mask = 1; mask < 8; mask++) {
+            MovieFilterRequest filter = new MovieFilterRequest(
+                    (mask & 4) != 0 ? directorId : null,
+                    (mask & 1) != 0 ? GENRE : null,
+                    (mask & 2) != 0 ? YEAR : null,
+                    0, PAGE_SIZE);
+            Specification<Movie> spec = MovieSpecification.fromFilter(filter);
+            List<Object> filterValues = bindValues(filter);
+
+            checks.add(planCheck("page " + filter, withLimit(filterValues),
+                    () -> movieRepository.findListDtos(spec, PageRequest.of(0, PAGE_SIZE))));
+            checks.add(planCheck("keyset " + filter, withCursorAndLimit(filterValues),
+                    () -> movieRepository.findListDtosAfter(spec, new MovieCursor(YEAR, 0), PAGE_SIZE + 1)));
+            // A genre-only report returns a fifth of the table, where a sequential scan is the right plan.
+            if (mask != 1) {
+                checks.add(planCheck("report " + filter, filterValues, () -> {
+                    try (Stream<MovieListDto> rows = movieRepository.streamListDtos(spec)) {
+                        return rows.count();
+                    }
+                }));
+            }
+        }
+        assertAll(checks);
+    }
+
+    @Test
+    @DisplayName("Title search is served by the trigram index, alone and combined with other filters")
+    void titleSearchUsesTrigramIndex() {
+        List<Executable> checks = new ArrayList<>();
+        for (Genres genre : new Genres[]{null, GENRE}) {
+            MovieFilterRequest filter = new MovieFilterRequest(null, genre, null, 0, PAGE_SIZE, null, null, TITLE);
+            Specification<Movie> spec = MovieSpecification.fromFilter(filter);
+            List<Object> whereValues = bindValues(filter);
+            // the relevance term is bound again in ORDER BY
+            List<Object> orderedValues = new ArrayList<>(whereValues);
+            orderedValues.add(TITLE);
+
+            checks.add(planCheck("page " + filter, withLimit(orderedValues),
+                    () -> movieRepository.findListDtos(spec, PageRequest.of(0, PAGE_SIZE)), TITLE_INDEX));
+            checks.add(planCheck("count " + filter, whereValues, () -> movieRepository.count(spec), TITLE_INDEX));
+            checks.add(planCheck("report " + filter, orderedValues, () -> {
+                try (Stream<MovieListDto> rows = movieRepository.streamListDtos(spec)) {
+                    return rows.count();
+                }
+            }, TITLE_INDEX));
+        }
+        assertAll(checks);
+
+        List<MovieListDto> found = movieRepository.findListDtos(
+                MovieSpecification.hasTitle("Plan move 19999"), PageRequest.of(0, PAGE_SIZE));
+        assertEquals("Plan movie 19999", found.getFirst().title());
+    }
+
+    @Test
+    @DisplayName("Title search needs a term long enough to have trigrams, and the shortest one is still indexed")
+    void shortTitleSearch() {
+        for (String title : new String[]{"ab", " 19 ", "%"}) {
+            MovieFilterRequest filter = new MovieFilterRequest(null, null, null, 0, PAGE_SIZE, null, null, title);
+            assertThrows(IllegalArgumentException.class, () -> MovieSpecification.fromFilter(filter), title);
+            assertThrows(IllegalArgumentException.class, () -> movieRepository.countFacets(null, null, null, title), title);
+        }
+
+        MovieFilterRequest filter = new MovieFilterRequest(null, null, null, 0, PAGE_SIZE, null, null, SHORTEST_TITLE);
+        Specification<Movie> spec = MovieSpecification.fromFilter(filter);
+        List<Object> values = new ArrayList<>(bindValues(filter));
+        values.add(SHORTEST_TITLE);
+        assertAll(planCheck("page " + filter, withLimit(values),
+                () -> movieRepository.findListDtos(spec, PageRequest.of(0, PAGE_SIZE)), TITLE_INDEX));
+    }
+
+    private Executable planCheck(String name, List<Object> values, Supplier<?> query) {
+        return planCheck(name, values, query, null);
+    }
+
+    private Executable planCheck(String name, List<Object> values, Supplier<?> query, String requiredIndex) {
+        return () -> {
+            RecordingStatementInspector.clear();
+            query.get();
+            String sql = RecordingStatementInspector.lastSelect();
+            String plan = QueryPlans.explain(jdbcTemplate, sql, values);
+            assertFalse(plan.contains("Seq Scan on movies"), () -> name + "\n" + sql + "\n" + plan);
+            if (requiredIndex != null) {
+                assertTrue(plan.contains(requiredIndex), () -> name + "\n" + sql + "\n" + plan);
+            }
+        };
+    }
+
+    // Parameters appear in the order MovieSpecification.fromFilter composes its predicates.
+    private static List<Object> bindValues(MovieFilterRequest filter) {
+        List<Object> values = new ArrayList<>();
+        if (filter.genre() != null) values.add(filter.genre().name());
+        if (filter.releaseYear() != null) values.add(filter.releaseYear());
+        if (filter.directorId() != null) values.add(filter.directorId());
+        if (filter.hasTitle()) {
+            values.add("%" + filter.title() + "%");
+            values.add(filter.title());
+        }
+        return values;
+    }
+
+    private static List<Object> withLimit(List<Object> filterValues) {
+        List<Object> values = new ArrayList<>(filterValues);
+        values.add(PAGE_SIZE);
+        return values;
+    }
+
+    private static List<Object> withCursorAndLimit(List<Object> filterValues) {
+        List<Object> values = new ArrayList<>(filterValues);
+        values.addAll(List.of(YEAR, YEAR, 0));
+        values.add(PAGE_SIZE + 1);
+        return values;
+    }
+}
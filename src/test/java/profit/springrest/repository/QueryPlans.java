@@ -0,0 +1,52 @@
+package profit.springrest.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Explains SQL captured by {@link RecordingStatementInspector}: the JDBC placeholders are numbered,
+ * the statement is prepared and then explained with the given bind values, so PostgreSQL plans it
+ * exactly as it plans the query Hibernate sends.
+ */
+public final class QueryPlans {
+    private static final String STATEMENT = "query_plan";
+
+    private QueryPlans() {
+    }
+
+    public static String explain(JdbcTemplate jdbcTemplate, String sql, List<Object> values) {
+        return explain(jdbcTemplate, "explain", sql, values);
+    }
+
+    public static String explainAnalyze(JdbcTemplate jdbcTemplate, String sql, List<Object> values) {
+        return explain(jdbcTemplate, "explain (analyze, buffers)", sql, values);
+    }
+
+    private static String explain(JdbcTemplate jdbcTemplate, String command, String sql, List<Object> values) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        assertEquals(values.size(), parameter, () -> "Unexpected bind parameters in: " + sql);
+
+        String arguments = values.stream()
+                .map(value -> value instanceof String text ? "'" + text.replace("'", "''") + "'" : String.valueOf(value))
+                .collect(Collectors.joining(", "));
+        jdbcTemplate.execute("prepare " + STATEMENT + " as " + numbered);
+        try {
+            return String.join("\n", jdbcTemplate.queryForList(
+                    command + " execute " + STATEMENT + "(" + arguments + ")", String.class));
+        } finally {
+            jdbcTemplate.execute("deallocate " + STATEMENT);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package profit.springrest.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the SQL Hibernate prepares on the current thread so tests can inspect it.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    public static void clear() {
+        STATEMENTS.get().clear();
+    }
+
+    public static String lastSelect() {
+        List<String> statements = STATEMENTS.get();
+        for (int i = statements.size() - 1; i >= 0; i--) {
+            if (statements.get(i).stripLeading().toLowerCase().startsWith("select")) {
+                return statements.get(i);
+            }
+        }
+        throw new IllegalStateException("No SELECT statement was recorded");
+    }
+}
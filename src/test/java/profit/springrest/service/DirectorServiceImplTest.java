@@ -6,15 +6,26 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import profit.springrest.data.Director;
+import profit.springrest.dto.director.DirectorCursor;
+import profit.springrest.dto.director.DirectorDeleteResultDto;
 import profit.springrest.dto.director.DirectorRequestDto;
 import profit.springrest.dto.director.DirectorResponseDto;
+import profit.springrest.dto.director.DirectorUpsertResultDto;
+import profit.springrest.dto.movie.PageResponse;
 import profit.springrest.exception.EntityNotFoundException;
 import profit.springrest.mapper.DirectorMapper;
 import profit.springrest.repository.DirectorRepository;
+import profit.springrest.service.catalog.CatalogEventBridge;
+import profit.springrest.service.director.DirectorCacheEvictor;
 import profit.springrest.service.director.DirectorServiceImpl;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,32 +39,58 @@ public class DirectorServiceImplTest {
     @Mock
     private DirectorMapper directorMapper;
 
+    @Mock
+    private DirectorCacheEvictor directorCacheEvictor;
+
+    @Mock
+    private CatalogEventBridge catalogEventBridge;
+
     @InjectMocks
     private DirectorServiceImpl directorService;
 
     @Test
-    @DisplayName("Create Director: Should save and return DTO when name is unique")
+    @DisplayName("Create Director: Should insert in one statement and evict the name lookups")
     void createDirector_Success() {
         DirectorRequestDto request = new DirectorRequestDto("Tarantino");
-        Director directorEntity = new Director();
-        directorEntity.setName("Tarantino");
+        when(directorRepository.upsertByName(List.of("Tarantino")))
+                .thenReturn(List.of(new DirectorUpsertResultDto(1L, "Tarantino", true)));
 
-        Director savedDirector = new Director();
-        savedDirector.setId(1L);
-        savedDirector.setName("Tarantino");
+        DirectorResponseDto result = directorService.createDirector(request);
 
-        DirectorResponseDto expectedResponse = new DirectorResponseDto(1L, "Tarantino");
+        assertEquals(new DirectorResponseDto(1L, "Tarantino"), result);
+        verify(directorRepository, never()).existsByName(any());
+        verify(directorRepository, never()).save(any());
+        verify(directorCacheEvictor).evictInserted();
+        verify(catalogEventBridge).insertedInBulk(argThat(directors ->
+                directors.size() == 1 && directors.iterator().next().getId() == 1L));
+    }
 
-        when(directorRepository.existsByName("Tarantino")).thenReturn(false); // Name is unique
-        when(directorMapper.toEntity(request)).thenReturn(directorEntity);
-        when(directorRepository.save(directorEntity)).thenReturn(savedDirector);
-        when(directorMapper.toDto(savedDirector)).thenReturn(expectedResponse);
+    @Test
+    @DisplayName("Upsert Directors: Should return existing and new ids and announce only the new ones")
+    void upsertDirectors_Mixed() {
+        List<DirectorUpsertResultDto> results = List.of(
+                new DirectorUpsertResultDto(1L, "Nolan", false),
+                new DirectorUpsertResultDto(51L, "Villeneuve", true));
+        when(directorRepository.upsertByName(List.of("Nolan", "Villeneuve", "Nolan"))).thenReturn(results);
+
+        assertEquals(results, directorService.upsertDirectors(List.of("Nolan", "Villeneuve", "Nolan")));
+
+        verify(directorCacheEvictor).evictInserted();
+        verify(catalogEventBridge).insertedInBulk(argThat(directors ->
+                directors.size() == 1 && "Villeneuve".equals(directors.iterator().next().getName())));
+    }
 
-        DirectorResponseDto result = directorService.createDirector(request);
+    @Test
+    @DisplayName("Upsert Director: Should leave caches alone when the director exists")
+    void upsertDirector_Existing() {
+        when(directorRepository.upsertByName(List.of("Nolan")))
+                .thenReturn(List.of(new DirectorUpsertResultDto(1L, "Nolan", false)));
+
+        DirectorUpsertResultDto result = directorService.upsertDirector(new DirectorRequestDto("Nolan"));
 
-        assertNotNull(result);
+        assertFalse(result.created());
         assertEquals(1L, result.id());
-        verify(directorRepository).save(any(Director.class));
+        verifyNoInteractions(directorCacheEvictor, catalogEventBridge);
     }
 
     @Test
@@ -81,30 +118,113 @@ public class DirectorServiceImplTest {
 
         assertEquals("Nolan Updated", result.name());
         verify(directorMapper).updateEntityFromDto(request, existingDirector);
+        verify(directorCacheEvictor).evict(id);
     }
 
     @Test
-    @DisplayName("Delete Director: Should call deleteById when ID exists")
+    @DisplayName("Delete Director: Should delete through the database cascade and evict the director")
     void deleteDirector_Success() {
         Long id = 1L;
-        when(directorRepository.existsById(id)).thenReturn(true);
+        when(directorRepository.deleteCascading(Set.of(id))).thenReturn(Map.of(id, List.of(10L, 11L)));
 
         directorService.deleteDirectorById(id);
 
-        verify(directorRepository).deleteById(id);
+        verify(directorRepository, never()).deleteById(any());
+        verify(directorCacheEvictor).evictDeleted(List.of(id));
+        verify(catalogEventBridge).deletedInBulk(List.of(id), List.of(10L, 11L));
+    }
+
+    @Test
+    @DisplayName("Delete Director: Should throw exception when ID not found")
+    void deleteDirector_NotFound_ThrowsException() {
+        when(directorRepository.deleteCascading(Set.of(99L))).thenReturn(Map.of());
+
+        assertThrows(EntityNotFoundException.class, () -> directorService.deleteDirectorById(99L));
+    }
+
+    @Test
+    @DisplayName("Delete Directors: Should report deleted and unknown ids and the movies removed")
+    void deleteDirectors_Bulk() {
+        Map<Long, List<Long>> deleted = new LinkedHashMap<>();
+        deleted.put(1L, List.of(10L));
+        deleted.put(2L, List.of());
+        deleted.put(3L, List.of(30L, 31L));
+        when(directorRepository.deleteCascading(Set.of(1L, 2L, 3L, 4L))).thenReturn(deleted);
+
+        DirectorDeleteResultDto result = directorService.deleteDirectors(List.of(1L, 2L, 3L, 4L, 1L));
+
+        assertEquals(List.of(1L, 2L, 3L), result.deletedIds());
+        assertEquals(List.of(4L), result.notFoundIds());
+        assertEquals(3, result.moviesDeleted());
+        verify(catalogEventBridge).deletedInBulk(List.of(1L, 2L, 3L), List.of(10L, 30L, 31L));
+    }
+
+    @Test
+    @DisplayName("Get Directors: Should return a page and a cursor after its last id")
+    void getDirectors_Page() {
+        when(directorRepository.findPageAfter(5L, Limit.of(3))).thenReturn(List.of(
+                new DirectorResponseDto(6L, "A"), new DirectorResponseDto(8L, "B"), new DirectorResponseDto(9L, "C")));
+
+        PageResponse<DirectorResponseDto> page = directorService.getDirectors(null, new DirectorCursor(5L).encode(), 2);
+
+        assertEquals(2, page.getList().size());
+        assertEquals(new DirectorCursor(8L), DirectorCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    @DisplayName("Get Directors: Should search a lower-case name prefix")
+    void getDirectors_NamePrefix() {
+        when(directorRepository.findPageByNamePrefixAfter("o_b", null, Limit.of(11)))
+                .thenReturn(List.of(new DirectorResponseDto(1L, "O_Brien")));
+
+        PageResponse<DirectorResponseDto> page = directorService.getDirectors(" O_B ", null, 10);
+
+        assertEquals(1, page.getList().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Get Directors: Should key name prefix pages on the last name and id")
+    void getDirectors_NamePrefixCursor() {
+        DirectorCursor after = new DirectorCursor(7L, "Nolan: Christopher");
+        when(directorRepository.findPageByNamePrefixAfter("no", after, Limit.of(2))).thenReturn(List.of(
+                new DirectorResponseDto(3L, "Nolan: Jonathan"), new DirectorResponseDto(9L, "Noé")));
+
+        PageResponse<DirectorResponseDto> page = directorService.getDirectors("No", after.encode(), 1);
+
+        assertEquals(new DirectorCursor(3L, "Nolan: Jonathan"), DirectorCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    @DisplayName("Get Directors: Should reject an id-ordered cursor for a name search and vice versa")
+    void getDirectors_MismatchedCursor() {
+        String byName = new DirectorCursor(3L, "Nolan").encode();
+        String byId = new DirectorCursor(3L).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> directorService.getDirectors(null, byName, 10));
+        assertThrows(IllegalArgumentException.class, () -> directorService.getDirectors("No", byId, 10));
+    }
+
+    @Test
+    @DisplayName("Get Directors: Should reject a page size outside 1..100")
+    void getDirectors_InvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> directorService.getDirectors(null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> directorService.getDirectors(null, null, 101));
     }
 
     @Test
     @DisplayName("Create Director: Should throw exception when name already exists")
     void createDirector_DuplicateName_ThrowsException() {
         DirectorRequestDto request = new DirectorRequestDto("Tarantino");
-        when(directorRepository.existsByName("Tarantino")).thenReturn(true); // Name ALREADY exists
+        when(directorRepository.upsertByName(List.of("Tarantino")))
+                .thenReturn(List.of(new DirectorUpsertResultDto(1L, "Tarantino", false))); // Name ALREADY exists
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
                 () -> directorService.createDirector(request));
 
         assertEquals("Director with name Tarantino already exists", ex.getMessage());
         verify(directorRepository, never()).save(any());
+        verify(directorCacheEvictor, never()).evictInserted();
     }
 
     @Test
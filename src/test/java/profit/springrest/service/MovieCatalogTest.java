@@ -0,0 +1,164 @@
+package profit.springrest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import profit.springrest.data.Director;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieCatalogRow;
+import profit.springrest.dto.movie.MovieCursor;
+import profit.springrest.dto.movie.MovieFilterRequest;
+import profit.springrest.dto.movie.MovieListDto;
+import profit.springrest.repository.DirectorRepository;
+import profit.springrest.repository.MovieRepository;
+import profit.springrest.service.catalog.MovieCatalog;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MovieCatalogTest {
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private DirectorRepository directorRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MovieCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        when(directorRepository.findAll()).thenReturn(List.of(director(1L, "Nolan"), director(2L, "Lynch")));
+        when(movieRepository.streamCatalogRows()).thenReturn(Stream.of(
+                new MovieCatalogRow(10L, "Memento", 2000, Genres.DRAMA, 1L),
+                new MovieCatalogRow(11L, "Mulholland Drive", 2001, Genres.DRAMA, 2L),
+                new MovieCatalogRow(12L, "Insomnia", 2002, Genres.HORROR, 1L),
+                new MovieCatalogRow(13L, "Inland Empire", 2000, Genres.DRAMA, 2L),
+                new MovieCatalogRow(14L, "Tenet", 2000, Genres.SCI_FI, 1L)));
+
+        catalog = new MovieCatalog(movieRepository, directorRepository, transactionManager);
+        catalog.rebuild();
+    }
+
+    @Test
+    @DisplayName("Search: Should order by release year then id and count every match")
+    void search_OrderAndTotals() {
+        MovieCatalog.CatalogPage page = catalog.search(filter(null, null, null), null, 1, 3);
+
+        assertEquals(List.of(13L, 14L, 11L), ids(page.rows()));
+        assertEquals(5, page.total());
+        assertEquals("Lynch", page.rows().get(0).directorName());
+    }
+
+    @Test
+    @DisplayName("Search: Should combine genre, year and director filters")
+    void search_Filters() {
+        assertEquals(List.of(10L, 13L, 11L), ids(catalog.search(filter(null, Genres.DRAMA, null), null, 0, 10).rows()));
+        assertEquals(2, catalog.search(filter(null, Genres.DRAMA, 2000), null, 0, 10).total());
+        assertEquals(List.of(10L, 14L, 12L), ids(catalog.search(filter(1L, null, null), null, 0, 10).rows()));
+        assertEquals(List.of(14L), ids(catalog.search(filter(1L, Genres.SCI_FI, 2000), null, 0, 10).rows()));
+        assertEquals(0, catalog.search(filter(99L, null, null), null, 0, 10).total());
+    }
+
+    @Test
+    @DisplayName("Search: Should continue after a keyset cursor")
+    void search_AfterCursor() {
+        MovieCursor after = new MovieCursor(2000, 13L);
+
+        assertEquals(List.of(14L, 11L), ids(catalog.search(filter(null, null, null), after, 0, 2).rows()));
+        assertEquals(List.of(12L), ids(catalog.search(filter(1L, null, null), new MovieCursor(2000, 14L), 0, 2).rows()));
+    }
+
+    @Test
+    @DisplayName("Search: Should page a director's movies in (year, id) order as they change")
+    void search_DirectorOrderFollowsChanges() {
+        catalog.movieSaved(movie(12L, "Insomnia", 1999, Genres.HORROR, 1L));
+        catalog.movieSaved(movie(8L, "Doodlebug", 2000, Genres.DRAMA, 1L));
+
+        MovieCatalog.CatalogPage page = catalog.search(filter(1L, null, null), null, 1, 2);
+        assertEquals(List.of(8L, 10L), ids(page.rows()));
+        assertEquals(4, page.total());
+        MovieCatalog.CatalogPage year = catalog.search(filter(1L, null, 2000), new MovieCursor(2000, 8L), 1, 5);
+        assertEquals(List.of(14L), ids(year.rows()));
+        assertEquals(3, year.total());
+        assertEquals(List.of(12L), ids(catalog.search(filter(1L, Genres.HORROR, null), null, 0, 5).rows()));
+    }
+
+    @Test
+    @DisplayName("Changes: Should follow committed inserts, updates, deletes and director renames")
+    void changes_AreApplied() {
+        catalog.movieSaved(movie(9L, "Following", 1998, Genres.DRAMA, 1L));
+        catalog.movieSaved(movie(12L, "Insomnia", 2002, Genres.DRAMA, 1L));
+        catalog.movieDeleted(10L);
+        Director renamed = director(2L, "David Lynch");
+        catalog.directorSaved(renamed);
+
+        MovieCatalog.CatalogPage drama = catalog.search(filter(null, Genres.DRAMA, null), null, 0, 10);
+        assertEquals(List.of(9L, 13L, 11L, 12L), ids(drama.rows()));
+        assertEquals(4, drama.total());
+        assertEquals("David Lynch", drama.rows().get(1).directorName());
+        assertEquals(0, catalog.search(filter(null, Genres.HORROR, null), null, 0, 10).total());
+        assertEquals(5, catalog.size());
+    }
+
+    @Test
+    @DisplayName("Changes: Should take ids arriving below the last one without rebuilding per row")
+    void changes_OutOfOrderIds() {
+        for (long id = 9; id >= 1; id--) {
+            catalog.movieSaved(movie(id, "Old " + id, 2000, id % 2 == 0 ? Genres.DRAMA : Genres.COMEDY, 1L));
+        }
+        catalog.movieSaved(movie(5L, "Old 5", 2001, Genres.COMEDY, 1L));
+        catalog.movieDeleted(3L);
+
+        assertEquals(0, catalog.compactions());
+        assertEquals(13, catalog.size());
+        assertEquals(List.of(1L, 2L, 4L, 6L, 7L, 8L, 9L, 10L, 13L, 14L, 5L, 11L, 12L),
+                ids(catalog.search(filter(null, null, null), null, 0, 20).rows()));
+        assertEquals(List.of(2L, 4L, 6L, 8L, 10L, 13L), ids(catalog.search(filter(null, Genres.DRAMA, 2000), null, 0, 10).rows()));
+        assertEquals(List.of(7L, 8L, 9L), ids(catalog.search(filter(null, null, null), new MovieCursor(2000, 6L), 0, 3).rows()));
+        assertEquals(List.of(8L, 9L, 10L), ids(catalog.search(filter(null, null, 2000), null, 5, 3).rows()));
+
+        for (long id = -1; id >= -5000; id--) {
+            catalog.movieSaved(movie(id, "Older", 1990, Genres.ACTION, 2L));
+        }
+        assertTrue(catalog.compactions() <= 5, () -> catalog.compactions() + " compactions");
+        assertEquals(List.of(-5000L, -4999L), ids(catalog.search(filter(null, Genres.ACTION, null), null, 0, 2).rows()));
+        assertEquals(List.of(-1L, 1L), ids(catalog.search(filter(null, null, null), null, 4999, 2).rows()));
+    }
+
+    private static MovieFilterRequest filter(Long directorId, Genres genre, Integer year) {
+        return new MovieFilterRequest(directorId, genre, year, null, null);
+    }
+
+    private static List<Long> ids(List<MovieListDto> rows) {
+        return rows.stream().map(MovieListDto::id).toList();
+    }
+
+    private static Director director(Long id, String name) {
+        Director director = new Director();
+        director.setId(id);
+        director.setName(name);
+        return director;
+    }
+
+    private static Movie movie(Long id, String title, int year, Genres genre, Long directorId) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle(title);
+        movie.setReleaseYear(year);
+        movie.setGenre(genre);
+        movie.setDirector(director(directorId, null));
+        return movie;
+    }
+}
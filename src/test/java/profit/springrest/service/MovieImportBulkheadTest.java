@@ -0,0 +1,99 @@
+package profit.springrest.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import profit.springrest.config.BulkPartition;
+import profit.springrest.dto.movie.ImportJobDto;
+import profit.springrest.service.movie.MovieImportJobs;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * With the bulkhead active, an import worker's repository calls must run on a bulk permit. The
+ * test reads job state through {@link JdbcTemplate}, which the bulkhead does not guard, so the
+ * interactive wait count only moves if the worker takes interactive permits.
+ */
+@SpringBootTest(properties = {"spring.threads.virtual.enabled=true", "movie.import.chunk-size=2"})
+class MovieImportBulkheadTest {
+    @Autowired
+    private MovieImportJobs movieImportJobs;
+
+    @Autowired
+    private BulkPartition bulkPartition;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long directorId;
+    private UUID jobId;
+
+    @AfterEach
+    void tearDown() {
+        if (jobId != null) {
+            jdbcTemplate.update("delete from import_jobs where id = ?", jobId);
+        }
+        if (directorId != null) {
+            jdbcTemplate.update("delete from directors where id = ?", directorId);
+        }
+    }
+
+    @Test
+    @DisplayName("Import workers take bulk permits, never interactive ones")
+    void importRunsInBulkPartition() throws InterruptedException {
+        directorId = jdbcTemplate.queryForObject("""
+                insert into directors (id, name) values (nextval('directors_seq'), ?) returning id
+                """, Long.class, "Bulkhead import director " + System.nanoTime());
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 10; i++) {
+            json.append(i > 0 ? "," : "").append("""
+                    {"title": "Bulkhead import %d", "releaseYear": 2001, "genre": "DRAMA", "directorId": %d}
+                    """.formatted(i, directorId));
+        }
+        json.append("]");
+
+        MockMultipartFile file = new MockMultipartFile("file", "movies.json", "application/json",
+                json.toString().getBytes(StandardCharsets.UTF_8));
+        double interactive = waits("interactive");
+        double bulk = waits("bulk");
+        // Submitted on a bulk permit too, so that only the worker could move the interactive count.
+        AtomicReference<ImportJobDto> job = new AtomicReference<>();
+        bulkPartition.run(() -> job.set(movieImportJobs.submit(file)));
+        jobId = job.get().id();
+
+        assertEquals("COMPLETED", awaitFinished());
+        assertEquals(10, jdbcTemplate.queryForObject(
+                "select count(*) from movies where director_id = ?", Integer.class, directorId));
+        assertEquals(interactive, waits("interactive"));
+        assertTrue(waits("bulk") >= bulk + 2);
+    }
+
+    private double waits(String partition) {
+        return meterRegistry.get("db.bulkhead.wait").tag("partition", partition).timer().count();
+    }
+
+    private String awaitFinished() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            String status = jdbcTemplate.queryForObject("select status from import_jobs where id = ?", String.class, jobId);
+            if ("COMPLETED".equals(status) || "FAILED".equals(status)) {
+                return status;
+            }
+            Thread.sleep(20);
+        }
+        return fail("Import job " + jobId + " did not finish");
+    }
+}
@@ -0,0 +1,170 @@
+package profit.springrest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import profit.springrest.config.BulkPartition;
+import profit.springrest.config.ImportProperties;
+import profit.springrest.data.ImportJob;
+import profit.springrest.data.ImportJobStatus;
+import profit.springrest.dto.movie.ImportJobDto;
+import profit.springrest.dto.movie.ImportResultDto;
+import profit.springrest.repository.ImportJobRepository;
+import profit.springrest.service.movie.ImportCheckpoint;
+import profit.springrest.service.movie.ImportProgressListener;
+import profit.springrest.service.movie.MovieImportJobs;
+import profit.springrest.service.movie.MovieImporter;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MovieImportJobsTest {
+    private static final String JSON = "[{\"title\": \"A\", \"releaseYear\": 2000, \"genre\": \"DRAMA\", \"directorId\": 1}]";
+
+    @Mock
+    private MovieImporter movieImporter;
+
+    @Mock
+    private ImportJobRepository importJobRepository;
+
+    @TempDir
+    private Path spoolDir;
+
+    private MovieImportJobs movieImportJobs;
+
+    @BeforeEach
+    void setUp() {
+        movieImportJobs = new MovieImportJobs(movieImporter, importJobRepository,
+                new ImportProperties(2, 100, 1, 1, spoolDir, Duration.ofMinutes(1)), new BulkPartition());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        movieImportJobs.shutdown();
+    }
+
+    @Test
+    @DisplayName("Submit: Should spool the upload, run it in the background and remove the spool file")
+    void submit_RunsJob() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        AtomicReference<ImportJob> saved = new AtomicReference<>();
+        AtomicReference<String> spooled = new AtomicReference<>();
+        when(importJobRepository.save(any(ImportJob.class))).thenAnswer(invocation -> {
+            ImportJob job = invocation.getArgument(0);
+            job.setId(jobId);
+            saved.set(job);
+            return job;
+        });
+        when(importJobRepository.markStarted(eq(jobId), any(), eq(ImportJobStatus.RUNNING), any(), any())).thenReturn(1);
+        when(importJobRepository.findById(jobId)).thenAnswer(invocation -> Optional.of(saved.get()));
+        when(importJobRepository.markFinished(eq(jobId), any(), eq(ImportJobStatus.COMPLETED), isNull(), any())).thenReturn(1);
+        when(movieImporter.importMovies(any(InputStream.class), eq(ImportCheckpoint.START), any(ImportProgressListener.class)))
+                .thenAnswer(invocation -> {
+                    spooled.set(new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8));
+                    return ImportResultDto.builder().successCount(1).failedCount(0).failures(List.of()).build();
+                });
+
+        ImportJobDto job = movieImportJobs.submit(new MockMultipartFile("file", "movies.json",
+                "application/json", JSON.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(jobId, job.id());
+        assertEquals(ImportJobStatus.QUEUED, job.status());
+        assertNotNull(saved.get().getOwner());
+        assertTrue(saved.get().getLeaseExpiresAt().isAfter(saved.get().getCreatedAt()));
+        verify(importJobRepository, timeout(5000)).markFinished(eq(jobId), eq(saved.get().getOwner()),
+                eq(ImportJobStatus.COMPLETED), isNull(), any());
+        assertEquals(JSON, spooled.get());
+        movieImportJobs.shutdown();
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Resume: Should continue an interrupted job from its checkpoint")
+    void resumeUnfinished_FromCheckpoint() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        Path spoolFile = Files.writeString(spoolDir.resolve("import-1.json"), JSON);
+        ImportJob job = new ImportJob();
+        job.setId(jobId);
+        job.setSpoolPath(spoolFile.toString());
+        job.setStatus(ImportJobStatus.RUNNING);
+        job.setLastRow(2000);
+        job.setRowsSucceeded(1990);
+        job.setRowsFailed(10);
+        when(importJobRepository.findClaimable(any())).thenReturn(List.of(job));
+        when(importJobRepository.claim(eq(jobId), any(), any(), any())).thenReturn(1);
+        when(importJobRepository.markStarted(eq(jobId), any(), eq(ImportJobStatus.RUNNING), any(), any())).thenReturn(1);
+        when(importJobRepository.findById(jobId)).thenReturn(Optional.of(job));
+        when(importJobRepository.countFailures(jobId)).thenReturn(10);
+        when(importJobRepository.markFinished(eq(jobId), any(), eq(ImportJobStatus.COMPLETED), isNull(), any())).thenReturn(1);
+
+        movieImportJobs.resumeUnfinished();
+
+        ArgumentCaptor<ImportCheckpoint> from = ArgumentCaptor.forClass(ImportCheckpoint.class);
+        verify(importJobRepository, timeout(5000)).markFinished(eq(jobId), any(), eq(ImportJobStatus.COMPLETED), isNull(), any());
+        verify(movieImporter).importMovies(any(InputStream.class), from.capture(), any(ImportProgressListener.class));
+        assertEquals(new ImportCheckpoint(2000, 1990, 10, 10), from.getValue());
+        movieImportJobs.shutdown();
+        assertFalse(Files.exists(spoolFile));
+    }
+
+    @Test
+    @DisplayName("Resume: Should leave a job alone when another instance claims it first")
+    void resumeUnfinished_ClaimedElsewhere() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        Path spoolFile = Files.writeString(spoolDir.resolve("import-1.json"), JSON);
+        ImportJob job = new ImportJob();
+        job.setId(jobId);
+        job.setSpoolPath(spoolFile.toString());
+        job.setStatus(ImportJobStatus.QUEUED);
+        when(importJobRepository.findClaimable(any())).thenReturn(List.of(job));
+        when(importJobRepository.claim(eq(jobId), any(), any(), any())).thenReturn(0);
+
+        movieImportJobs.resumeUnfinished();
+
+        verify(importJobRepository, timeout(5000)).claim(eq(jobId), any(), any(), any());
+        movieImportJobs.shutdown();
+        verify(importJobRepository, never()).markStarted(any(), any(), any(), any(), any());
+        verifyNoInteractions(movieImporter);
+        assertTrue(Files.exists(spoolFile));
+    }
+
+    @Test
+    @DisplayName("Resume: Should skip jobs whose spool file is not on this instance")
+    void resumeUnfinished_SpooledElsewhere() throws Exception {
+        ImportJob job = new ImportJob();
+        job.setId(UUID.randomUUID());
+        job.setSpoolPath(spoolDir.resolve("import-elsewhere.json").toString());
+        job.setStatus(ImportJobStatus.RUNNING);
+        when(importJobRepository.findClaimable(any())).thenReturn(List.of(job));
+
+        movieImportJobs.resumeUnfinished();
+
+        verify(importJobRepository, timeout(5000)).findClaimable(any());
+        movieImportJobs.shutdown();
+        verify(importJobRepository, never()).claim(any(), any(), any(), any());
+        verifyNoInteractions(movieImporter);
+    }
+}
@@ -0,0 +1,263 @@
+package profit.springrest.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import profit.springrest.config.ImportProperties;
+import profit.springrest.data.Director;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.ImportFailureDto;
+import profit.springrest.dto.movie.ImportResultDto;
+import profit.springrest.dto.movie.MovieRequestDto;
+import profit.springrest.mapper.MovieMapper;
+import profit.springrest.repository.DirectorRepository;
+import profit.springrest.repository.MovieRepository;
+import profit.springrest.service.movie.ImportCheckpoint;
+import profit.springrest.service.movie.ImportProgressListener;
+import profit.springrest.service.movie.MovieImporter;
+import profit.springrest.service.movie.MovieMetrics;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MovieImporterTest {
+    private static final String TWO_ROWS = """
+            [
+              {"title": "A", "releaseYear": 2000, "genre": "DRAMA", "directorId": 1},
+              {"title": "B", "releaseYear": 2001, "genre": "DRAMA", "directorId": 1}
+            ]
+            """;
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private DirectorRepository directorRepository;
+
+    @Mock
+    private MovieMapper movieMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MovieImporter movieImporter;
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        meterRegistry = new SimpleMeterRegistry();
+        movieImporter = new MovieImporter(movieRepository, directorRepository, movieMapper,
+                JsonMapper.builder().build(), validator, entityManager,
+                new TransactionTemplate(transactionManager), new ImportProperties(2, 100, 1, 1, null, Duration.ofMinutes(1)),
+                new MovieMetrics(meterRegistry));
+    }
+
+    @Test
+    @DisplayName("Import: Should count success and failures with per-row reasons")
+    void importMovies_MixedRows() {
+        String json = """
+                [
+                  {"title": "Valid", "releaseYear": 2000, "genre": "DRAMA", "directorId": 1},
+                  {"title": "Unknown director", "releaseYear": 2000, "genre": "DRAMA", "directorId": 99},
+                  {"title": "", "releaseYear": 2000, "genre": "DRAMA", "directorId": 1}
+                ]
+                """;
+        Director director = new Director();
+        director.setId(1L);
+
+        when(directorRepository.findAllCachedById(anyCollection())).thenReturn(List.of(director));
+        when(movieMapper.toEntity(any(MovieRequestDto.class))).thenAnswer(invocation -> new Movie());
+
+        ImportResultDto result = movieImporter.importMovies(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, result.successCount());
+        assertEquals(2, result.failedCount());
+        assertTrue(result.failures().contains(new ImportFailureDto(2, "Director with id: 99 not found")));
+        assertTrue(result.failures().contains(new ImportFailureDto(3, "Title is required")));
+        verify(directorRepository, times(1)).findAllCachedById(anyCollection());
+        verify(movieRepository, times(1)).saveAll(anyIterable());
+        assertEquals(1, meterRegistry.get("movie.import.rows").tag("result", "success").counter().count());
+        assertEquals(2, meterRegistry.get("movie.import.rows").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Import: Should flush one transaction per chunk")
+    void importMovies_ChunkedWrites() {
+        String json = """
+                [
+                  {"title": "A", "releaseYear": 2000, "genre": "DRAMA", "directorId": 1},
+                  {"title": "B", "releaseYear": 2001, "genre": "DRAMA", "directorId": 1},
+                  {"title": "C", "releaseYear": 2002, "genre": "DRAMA", "directorId": 1}
+                ]
+                """;
+        Director director = new Director();
+        director.setId(1L);
+
+        when(directorRepository.findAllCachedById(anyCollection())).thenReturn(List.of(director));
+        when(movieMapper.toEntity(any(MovieRequestDto.class))).thenAnswer(invocation -> new Movie());
+
+        ImportResultDto result = movieImporter.importMovies(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, result.successCount());
+        assertEquals(0, result.failedCount());
+        verify(directorRepository, times(2)).findAllCachedById(anyCollection());
+        verify(transactionManager, times(2)).commit(any());
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    @DisplayName("Import: Should checkpoint every committed chunk with the failures since the last one")
+    void importMovies_Checkpoints() {
+        String json = """
+                [
+                  {"title": "A", "releaseYear": 2000, "genre": "DRAMA", "directorId": 1},
+                  {"title": "", "releaseYear": 2001, "genre": "DRAMA", "directorId": 1},
+                  {"title": "C", "releaseYear": 2002, "genre": "DRAMA", "directorId": 1},
+                  {"title": "", "releaseYear": 2003, "genre": "DRAMA", "directorId": 1}
+                ]
+                """;
+        Director director = new Director();
+        director.setId(1L);
+        List<ImportCheckpoint> checkpoints = new ArrayList<>();
+        List<ImportFailureDto> failures = new ArrayList<>();
+
+        when(directorRepository.findAllCachedById(anyCollection())).thenReturn(List.of(director));
+        when(movieMapper.toEntity(any(MovieRequestDto.class))).thenAnswer(invocation -> new Movie());
+
+        movieImporter.importMovies(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                ImportCheckpoint.START, new ImportProgressListener() {
+                    @Override
+                    public void checkpoint(ImportCheckpoint checkpoint, List<ImportFailureDto> newFailures) {
+                        checkpoints.add(checkpoint);
+                        failures.addAll(newFailures);
+                    }
+                });
+
+        assertEquals(List.of(new ImportCheckpoint(3, 2, 1, 1), new ImportCheckpoint(4, 2, 2, 2)), checkpoints);
+        assertEquals(List.of(new ImportFailureDto(2, "Title is required"),
+                new ImportFailureDto(4, "Title is required")), failures);
+    }
+
+    @Test
+    @DisplayName("Import: Should resume after the checkpoint and continue its counts")
+    void importMovies_Resume() {
+        String json = """
+                [
+                  {"title": "A", "releaseYear": 2000, "genre": "DRAMA", "directorId": 1},
+                  {"title": "B", "releaseYear": 2001, "genre": "DRAMA", "directorId": 1},
+                  {"title": "C", "releaseYear": 2002, "genre": "DRAMA", "directorId": 1}
+                ]
+                """;
+        Director director = new Director();
+        director.setId(1L);
+
+        when(directorRepository.findAllCachedById(anyCollection())).thenReturn(List.of(director));
+        when(movieMapper.toEntity(any(MovieRequestDto.class))).thenAnswer(invocation -> new Movie());
+
+        ImportResultDto result = movieImporter.importMovies(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                new ImportCheckpoint(2, 1, 1, 1), ImportProgressListener.NONE);
+
+        assertEquals(2, result.successCount());
+        assertEquals(1, result.failedCount());
+        verify(movieMapper, times(1)).toEntity(any(MovieRequestDto.class));
+        assertEquals(1, meterRegistry.get("movie.import.rows").tag("result", "success").counter().count());
+        assertEquals(0, meterRegistry.get("movie.import.rows").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Import: Should reject a file that is not a JSON array")
+    void importMovies_NotAnArray() {
+        assertThrows(IllegalArgumentException.class, () -> movieImporter.importMovies(
+                new ByteArrayInputStream("{\"title\": \"A\"}".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    @DisplayName("Import: Should retry a chunk aborted by a deadlock")
+    void importMovies_RetriesDeadlock() {
+        stubTwoRowChunk();
+        doThrow(new CannotAcquireLockException("deadlock", new SQLException("deadlock detected", "40P01")))
+                .doReturn(List.of())
+                .when(movieRepository).saveAll(anyIterable());
+
+        ImportResultDto result = movieImporter.importMovies(
+                new ByteArrayInputStream(TWO_ROWS.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.successCount());
+        assertEquals(0, result.failedCount());
+        verify(movieRepository, times(2)).saveAll(anyIterable());
+    }
+
+    @Test
+    @DisplayName("Import: Should fail every row of a chunk rejected by a constraint")
+    void importMovies_ConstraintViolation() {
+        stubTwoRowChunk();
+        doThrow(new DataIntegrityViolationException("duplicate", new SQLException("duplicate key", "23505")))
+                .when(movieRepository).saveAll(anyIterable());
+
+        ImportResultDto result = movieImporter.importMovies(
+                new ByteArrayInputStream(TWO_ROWS.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(0, result.successCount());
+        assertEquals(2, result.failedCount());
+        assertTrue(result.failures().stream().allMatch(failure -> failure.reason().startsWith("Chunk rolled back")));
+        verify(movieRepository, times(1)).saveAll(anyIterable());
+    }
+
+    @Test
+    @DisplayName("Import: Should stop without a checkpoint when the database is unavailable")
+    void importMovies_ConnectionFailure() {
+        stubTwoRowChunk();
+        doThrow(new DataAccessResourceFailureException("connection", new SQLException("connection lost", "08006")))
+                .when(movieRepository).saveAll(anyIterable());
+        List<ImportCheckpoint> checkpoints = new ArrayList<>();
+
+        assertThrows(DataAccessResourceFailureException.class, () -> movieImporter.importMovies(
+                new ByteArrayInputStream(TWO_ROWS.getBytes(StandardCharsets.UTF_8)),
+                ImportCheckpoint.START, new ImportProgressListener() {
+                    @Override
+                    public void checkpoint(ImportCheckpoint checkpoint, List<ImportFailureDto> newFailures) {
+                        checkpoints.add(checkpoint);
+                    }
+                }));
+
+        assertEquals(List.of(), checkpoints);
+    }
+
+    private void stubTwoRowChunk() {
+        Director director = new Director();
+        director.setId(1L);
+        when(directorRepository.findAllCachedById(anyCollection())).thenReturn(List.of(director));
+        when(movieMapper.toEntity(any(MovieRequestDto.class))).thenAnswer(invocation -> new Movie());
+    }
+}
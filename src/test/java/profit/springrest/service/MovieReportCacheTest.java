@@ -0,0 +1,99 @@
+package profit.springrest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import profit.springrest.config.ReportCacheProperties;
+import profit.springrest.data.Genres;
+import profit.springrest.dto.movie.MovieFilterRequest;
+import profit.springrest.service.movie.CachedReport;
+import profit.springrest.service.movie.MovieReportCache;
+import profit.springrest.service.movie.MovieService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MovieReportCacheTest {
+    private static final MovieFilterRequest DRAMA = new MovieFilterRequest(null, Genres.DRAMA, null, 0, 10);
+    private static final MovieFilterRequest COMEDY = new MovieFilterRequest(null, Genres.COMEDY, null, 0, 10);
+
+    @Mock
+    private MovieService movieService;
+
+    @TempDir
+    private Path dir;
+
+    private MovieReportCache reportCache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        doAnswer(invocation -> {
+            MovieFilterRequest filter = invocation.getArgument(0);
+            invocation.<OutputStream>getArgument(1).write(("report " + filter.genre() + "\n").getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(movieService).generateCsvReport(any(), any());
+        reportCache = new MovieReportCache(movieService, new ReportCacheProperties(dir, DataSize.ofBytes(20)));
+    }
+
+    @Test
+    @DisplayName("Report cache: Should generate once per filter and data version")
+    void get_HitUntilVersionChanges() throws IOException {
+        when(movieService.getMoviesVersionTag()).thenReturn("1", "1", "1", "2");
+
+        assertEquals("report DRAMA\n", read(reportCache.get(DRAMA)));
+        // paging does not change the report
+        assertEquals("report DRAMA\n", read(reportCache.get(new MovieFilterRequest(null, Genres.DRAMA, null, 3, 50))));
+        assertEquals("report DRAMA\n", read(reportCache.get(DRAMA)));
+        verify(movieService, times(1)).generateCsvReport(eq(DRAMA), any());
+
+        CachedReport regenerated = reportCache.get(DRAMA);
+        assertEquals("2", regenerated.version());
+        regenerated.close();
+        verify(movieService, times(2)).generateCsvReport(any(), any());
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    @DisplayName("Report cache: Should evict the least recently used report beyond the size limit")
+    void get_EvictsLeastRecentlyUsed() throws IOException {
+        when(movieService.getMoviesVersionTag()).thenReturn("1");
+
+        read(reportCache.get(DRAMA));
+        read(reportCache.get(COMEDY));
+        read(reportCache.get(DRAMA));
+
+        assertEquals(1, countFiles());
+        verify(movieService, times(2)).generateCsvReport(eq(DRAMA), any());
+        verify(movieService, times(1)).generateCsvReport(eq(COMEDY), any());
+    }
+
+    private static String read(CachedReport report) throws IOException {
+        try (report) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) report.size());
+            report.channel().read(buffer, 0);
+            return new String(buffer.array(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
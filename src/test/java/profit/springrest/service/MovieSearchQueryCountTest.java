@@ -0,0 +1,81 @@
+package profit.springrest.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import profit.springrest.data.Director;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieFilterRequest;
+import profit.springrest.dto.movie.MovieListDto;
+import profit.springrest.dto.movie.PageResponse;
+import profit.springrest.service.movie.MovieService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class MovieSearchQueryCountTest {
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Director firstDirector;
+
+    @BeforeEach
+    void setUp() {
+        for (int d = 0; d < 3; d++) {
+            Director director = new Director();
+            director.setName("Query count director " + d + " " + System.nanoTime());
+            entityManager.persist(director);
+            if (firstDirector == null) {
+                firstDirector = director;
+            }
+            for (int m = 0; m < 10; m++) {
+                Movie movie = new Movie();
+                movie.setTitle("Movie " + d + "-" + m);
+                movie.setReleaseYear(2000 + m);
+                movie.setGenre(Genres.values()[m % Genres.values().length]);
+                movie.setDirector(director);
+                entityManager.persist(movie);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("/_list: one data query plus one count query, no entities loaded")
+    void searchMovies_DataAndCountQuery() {
+        PageResponse<MovieListDto> result = movieService.searchMovies(
+                new MovieFilterRequest(null, null, null, 0, 10));
+
+        assertEquals(10, result.getList().size());
+        assertFalse(result.getList().stream().anyMatch(movie -> movie.directorName() == null));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("/_list: count query is skipped when the first page holds every match")
+    void searchMovies_FilteredSinglePage() {
+        PageResponse<MovieListDto> result = movieService.searchMovies(
+                new MovieFilterRequest(firstDirector.getId(), Genres.DRAMA, null, 0, 10));
+
+        assertEquals(2, result.getTotalElements());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -6,31 +6,39 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.web.multipart.MultipartFile;
 import profit.springrest.data.Director;
 import profit.springrest.data.Genres;
+import profit.springrest.data.ImportJobStatus;
 import profit.springrest.data.Movie;
 import profit.springrest.dto.movie.*;
 import profit.springrest.exception.EntityNotFoundException;
 import profit.springrest.mapper.MovieMapper;
 import profit.springrest.repository.DirectorRepository;
 import profit.springrest.repository.MovieRepository;
+import profit.springrest.service.catalog.MovieCatalog;
+import profit.springrest.service.catalog.TitleSuggestIndex;
+import profit.springrest.service.movie.MovieImportJobs;
+import profit.springrest.service.movie.MovieMetrics;
 import profit.springrest.service.movie.MovieServiceImpl;
-import tools.jackson.core.type.TypeReference;
-import tools.jackson.databind.ObjectMapper;
 
-import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,7 +54,19 @@ class MovieServiceImplTest {
     private MovieMapper movieMapper;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private MovieImportJobs movieImportJobs;
+
+    @Mock
+    private ObjectProvider<MovieCatalog> movieCatalog;
+
+    @Mock
+    private MovieMetrics movieMetrics;
+
+    @Mock
+    private TitleSuggestIndex titleSuggestIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private MovieServiceImpl movieService;
@@ -115,63 +135,204 @@ class MovieServiceImplTest {
         verify(movieRepository).deleteById(10L);
     }
 
+    @Test
+    @DisplayName("Movie Version Tag: Should combine movie and director versions")
+    void getMovieVersionTag_Success() {
+        when(movieRepository.findVersionById(10L)).thenReturn(Optional.of(new MovieVersion(3, 1)));
+
+        assertEquals("3-1", movieService.getMovieVersionTag(10L));
+    }
+
+    @Test
+    @DisplayName("Movie Version Tag: Not Found")
+    void getMovieVersionTag_NotFound() {
+        when(movieRepository.findVersionById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> movieService.getMovieVersionTag(99L));
+    }
+
     @Test
     @DisplayName("Search Movies: Should return PageResponse")
     void searchMovies_Success() {
         MovieFilterRequest filter = new MovieFilterRequest(null, null, null, 0, 10);
-        Page<Movie> page = new PageImpl<>(List.of(new Movie()));
-
-        when(movieRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
-        when(movieMapper.toListDto(any())).thenReturn(
-                new MovieListDto(1L, "T", 2000, Genres.DRAMA, "D"));
+        when(movieRepository.findListDtos(any(), any(Pageable.class))).thenReturn(
+                List.of(new MovieListDto(1L, "T", 2000, Genres.DRAMA, "D")));
 
         PageResponse<MovieListDto> result = movieService.searchMovies(filter);
 
         assertEquals(1, result.getTotalElements());
         assertEquals(1, result.getList().size());
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Search Movies: Should take totals from the filter count buckets")
+    void searchMovies_TotalsFromBuckets() {
+        MovieFilterRequest filter = new MovieFilterRequest(2L, Genres.DRAMA, 2001, 1, 2);
+        when(movieRepository.findListDtos(any(), any(Pageable.class))).thenReturn(List.of(
+                new MovieListDto(1L, "A", 2001, Genres.DRAMA, "D"),
+                new MovieListDto(2L, "B", 2001, Genres.DRAMA, "D")));
+        when(movieRepository.countFromBuckets(Genres.DRAMA, 2001, 2L)).thenReturn(5L);
+
+        PageResponse<MovieListDto> result = movieService.searchMovies(filter);
+
+        assertEquals(5L, result.getTotalElements());
+        assertEquals(3, result.getTotalPages());
+    }
+
+    @Test
+    @DisplayName("Search Movies (keyset): Should return next cursor and skip the count query")
+    void searchMovies_Keyset() {
+        MovieFilterRequest filter = new MovieFilterRequest(null, Genres.DRAMA, null, null, 2,
+                PaginationMode.KEYSET, new MovieCursor(1999, 5L).encode());
+        List<MovieListDto> rows = List.of(
+                new MovieListDto(7L, "A", 2000, Genres.DRAMA, "D"),
+                new MovieListDto(3L, "B", 2001, Genres.DRAMA, "D"),
+                new MovieListDto(4L, "C", 2001, Genres.DRAMA, "D"));
+
+        when(movieRepository.findListDtosAfter(any(), eq(new MovieCursor(1999, 5L)), eq(3))).thenReturn(rows);
+
+        PageResponse<MovieListDto> result = movieService.searchMovies(filter);
+
+        assertEquals(2, result.getList().size());
+        assertEquals(new MovieCursor(2001, 3L), MovieCursor.decode(result.getNextCursor()));
+        assertNull(result.getTotalElements());
+        verify(movieRepository, never()).findListDtos(any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Suggest Titles: Should be answered by the title index once it is loaded")
+    void suggestTitles_FromIndex() {
+        List<MovieSuggestionDto> suggestions = List.of(new MovieSuggestionDto(1L, "Amélie", 2001));
+        when(titleSuggestIndex.isReady()).thenReturn(true);
+        when(titleSuggestIndex.suggest("ame", 5)).thenReturn(suggestions);
+
+        assertEquals(suggestions, movieService.suggestTitles("ame", 5));
+        verifyNoInteractions(movieRepository);
+    }
+
+    @Test
+    @DisplayName("Suggest Titles: Should fall back to an escaped LIKE query before the index is loaded")
+    void suggestTitles_BeforeIndexLoaded() {
+        when(titleSuggestIndex.isReady()).thenReturn(false);
+        when(movieRepository.findSuggestions("100\\%\\_%", Limit.of(10))).thenReturn(List.of());
+
+        assertEquals(List.of(), movieService.suggestTitles(" 100%_ ", 10));
+    }
+
+    @Test
+    @DisplayName("Suggest Titles: Should reject a limit outside 1..50 and ignore a query that folds to nothing")
+    void suggestTitles_Validation() {
+        assertThrows(IllegalArgumentException.class, () -> movieService.suggestTitles("a", 0));
+        assertThrows(IllegalArgumentException.class, () -> movieService.suggestTitles("a", 51));
+        assertEquals(List.of(), movieService.suggestTitles("  ", 10));
+        assertEquals(List.of(), movieService.suggestTitles("\u0301", 10));
+        assertEquals(List.of(), movieService.suggestTitles(" \u200b ", 10));
+        verifyNoInteractions(titleSuggestIndex);
+    }
+
+    @Test
+    @DisplayName("Search Movies: Should be answered by the in-memory catalog once it is loaded")
+    void searchMovies_FromCatalog() {
+        MovieFilterRequest filter = new MovieFilterRequest(null, Genres.DRAMA, null, 1, 1);
+        MovieCatalog catalog = mock(MovieCatalog.class);
+        when(movieCatalog.getIfAvailable()).thenReturn(catalog);
+        when(catalog.isReady()).thenReturn(true);
+        when(catalog.search(filter, null, 1, 1)).thenReturn(new MovieCatalog.CatalogPage(
+                List.of(new MovieListDto(2L, "B", 2001, Genres.DRAMA, "D")), 3));
+
+        PageResponse<MovieListDto> result = movieService.searchMovies(filter);
+
+        assertEquals(1, result.getList().size());
+        assertEquals(3L, result.getTotalElements());
+        assertEquals(3, result.getTotalPages());
+        verifyNoInteractions(movieRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Search Movies (title): Should bypass the catalog and count with a query")
+    void searchMovies_Title() {
+        MovieFilterRequest filter = new MovieFilterRequest(null, null, null, 1, 2, null, null, "memnto");
+        MovieCatalog catalog = mock(MovieCatalog.class);
+        when(movieCatalog.getIfAvailable()).thenReturn(catalog);
+        when(catalog.isReady()).thenReturn(true);
+        when(movieRepository.findListDtos(any(), any(Pageable.class))).thenReturn(List.of(
+                new MovieListDto(10L, "Memento", 2000, Genres.DRAMA, "D"),
+                new MovieListDto(11L, "Memento Mori", 2005, Genres.DRAMA, "D")));
+        when(movieRepository.count(any(Specification.class))).thenReturn(4L);
+
+        PageResponse<MovieListDto> result = movieService.searchMovies(filter);
+
+        assertEquals(4L, result.getTotalElements());
+        assertEquals(2, result.getTotalPages());
+        verify(catalog, never()).search(any(), any(), anyLong(), anyInt());
+        verify(movieRepository, never()).countFromBuckets(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Search Movies (title): Should reject keyset pagination")
+    void searchMovies_TitleWithKeyset() {
+        MovieFilterRequest filter = new MovieFilterRequest(null, null, null, null, 10, PaginationMode.KEYSET, null, "memento");
+
+        assertThrows(IllegalArgumentException.class, () -> movieService.searchMovies(filter));
+    }
+
+    @Test
+    @DisplayName("Search Movies (title): Should reject a title shorter than three characters")
+    void searchMovies_TitleTooShort() {
+        MovieFilterRequest filter = new MovieFilterRequest(null, null, null, 0, 10, null, null, " ab ");
+
+        assertThrows(IllegalArgumentException.class, () -> movieService.searchMovies(filter));
+        verify(movieRepository, never()).findListDtos(any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Search Movies (keyset): Should reject a malformed cursor")
+    void searchMovies_InvalidCursor() {
+        MovieFilterRequest filter = new MovieFilterRequest(null, null, null, null, 10, null, "not-a-cursor");
+
+        assertThrows(IllegalArgumentException.class, () -> movieService.searchMovies(filter));
     }
 
     @Test
     @DisplayName("Generate CSV: Should format string correctly")
-    void generateCsvReport_Success() {
+    void generateCsvReport_Success() throws IOException {
         MovieFilterRequest filter = new MovieFilterRequest(null, null, null, 0, 10);
+        MovieListDto row = new MovieListDto(1L, "Inception", 2010, Genres.SCI_FI, "Nolan");
 
-        Director d = new Director(); d.setName("Nolan");
-        Movie m = new Movie();
-        m.setId(1L); m.setTitle("Inception"); m.setReleaseYear(2010); m.setGenre(Genres.SCI_FI); m.setDirector(d);
-
-        when(movieRepository.findAll(any(Specification.class))).thenReturn(List.of(m));
+        when(movieRepository.streamListDtos(any())).thenReturn(Stream.of(row));
 
-        byte[] bytes = movieService.generateCsvReport(filter);
-        String csvContent = new String(bytes);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        movieService.generateCsvReport(filter, out);
+        String csvContent = out.toString(StandardCharsets.UTF_8);
 
         assertTrue(csvContent.contains("ID,Title,Year,Genre,Director"));
         assertTrue(csvContent.contains("1,\"Inception\",2010,SCI_FI,\"Nolan\""));
+        verify(movieMetrics).reportRows(1);
     }
 
     @Test
-    @DisplayName("Import: Should count success and failures")
-    void importMovies_Success() throws IOException {
+    @DisplayName("Import: Should queue the upload as a background job")
+    void importMovies_Success() {
         MultipartFile file = mock(MultipartFile.class);
-        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
-
-        MovieRequestDto validDto = new MovieRequestDto("Valid", 2000, Genres.DRAMA, 1L);
-        MovieRequestDto invalidDto = new MovieRequestDto("Invalid", 2000, Genres.DRAMA, 99L);
-        List<MovieRequestDto> dtos = List.of(validDto, invalidDto);
+        ImportJobDto expected = ImportJobDto.builder()
+                .id(UUID.randomUUID())
+                .status(ImportJobStatus.QUEUED)
+                .build();
+        when(movieImportJobs.submit(file)).thenReturn(expected);
 
-        when(objectMapper.readValue(any(InputStream.class), any(TypeReference.class))).thenReturn(dtos);
+        ImportJobDto result = movieService.importMovies(file);
 
-        Director director = new Director();
-
-        when(directorRepository.findById(1L)).thenReturn(Optional.of(director));
-        when(movieMapper.toEntity(validDto)).thenReturn(new Movie());
-        when(movieRepository.save(any())).thenReturn(new Movie());
-
-        when(directorRepository.findById(99L)).thenReturn(Optional.empty());
+        assertEquals(expected, result);
+    }
 
-        ImportResultDto result = movieService.importMovies(file);
+    @Test
+    @DisplayName("Import job: Should throw EntityNotFoundException for an unknown job")
+    void getImportJob_NotFound() {
+        UUID jobId = UUID.randomUUID();
+        when(movieImportJobs.find(jobId)).thenThrow(new EntityNotFoundException("Import job with id: " + jobId + " not found"));
 
-        assertEquals(1, result.successCount());
-        assertEquals(1, result.failedCount());
+        assertThrows(EntityNotFoundException.class, () -> movieService.getImportJob(jobId));
     }
 }
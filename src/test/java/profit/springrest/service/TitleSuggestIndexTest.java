@@ -0,0 +1,106 @@
+package profit.springrest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import profit.springrest.data.Genres;
+import profit.springrest.data.Movie;
+import profit.springrest.dto.movie.MovieCatalogRow;
+import profit.springrest.dto.movie.MovieSuggestionDto;
+import profit.springrest.repository.MovieRepository;
+import profit.springrest.service.catalog.TitleSuggestIndex;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TitleSuggestIndexTest {
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TitleSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(movieRepository.streamCatalogRows()).thenReturn(Stream.of(
+                new MovieCatalogRow(10L, "Memento", 2000, Genres.DRAMA, 1L),
+                new MovieCatalogRow(11L, "Mulholland Drive", 2001, Genres.DRAMA, 2L),
+                new MovieCatalogRow(12L, "Amélie", 2001, Genres.COMEDY, 3L),
+                new MovieCatalogRow(13L, "Amadeus", 1984, Genres.DRAMA, 4L),
+                new MovieCatalogRow(14L, "Memento", 2020, Genres.DRAMA, 5L)));
+
+        index = new TitleSuggestIndex(movieRepository, transactionManager);
+        assertFalse(index.isReady());
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Suggest: Should match a prefix in folded title order, then by id")
+    void suggest_Prefix() {
+        assertTrue(index.isReady());
+        assertEquals(List.of(10L, 14L, 11L), ids(index.suggest("m", 10)));
+        assertEquals(List.of(10L, 14L), ids(index.suggest("Mem", 10)));
+        assertEquals(List.of(), ids(index.suggest("x", 10)));
+    }
+
+    @Test
+    @DisplayName("Suggest: Should match nothing for a query that folds to nothing")
+    void suggest_EmptyAfterFolding() {
+        assertEquals(List.of(), ids(index.suggest("", 10)));
+        assertEquals(List.of(), ids(index.suggest("\u0301", 10)));
+        assertEquals(List.of(), ids(index.suggest("\u200b\u200d", 10)));
+        assertEquals("amelie", TitleSuggestIndex.fold("Am\u200belie"));
+    }
+
+    @Test
+    @DisplayName("Suggest: Should ignore case, accents and extra whitespace")
+    void suggest_Folding() {
+        assertEquals(List.of(12L), ids(index.suggest("AME", 10)));
+        assertEquals(List.of(12L), ids(index.suggest("amé", 10)));
+        assertEquals(List.of(11L), ids(index.suggest("  mulholland   d", 10)));
+        assertEquals("amelie", TitleSuggestIndex.fold("Amélie"));
+    }
+
+    @Test
+    @DisplayName("Suggest: Should stop at the limit")
+    void suggest_Limit() {
+        assertEquals(List.of(13L, 12L), ids(index.suggest("am", 2)));
+        assertEquals(List.of(13L), ids(index.suggest("am", 1)));
+    }
+
+    @Test
+    @DisplayName("Changes: Should follow committed inserts, renames and deletes")
+    void changes_AreApplied() {
+        index.movieSaved(movie(15L, "Melancholia", 2011));
+        index.movieSaved(movie(11L, "Lost Highway", 1997));
+        index.movieDeleted(10L);
+
+        List<MovieSuggestionDto> me = index.suggest("me", 10);
+        assertEquals(List.of(15L, 14L), ids(me));
+        assertEquals(new MovieSuggestionDto(15L, "Melancholia", 2011), me.getFirst());
+        assertEquals(List.of(), ids(index.suggest("mul", 10)));
+        assertEquals(List.of(11L), ids(index.suggest("lost", 10)));
+    }
+
+    private static List<Long> ids(List<MovieSuggestionDto> suggestions) {
+        return suggestions.stream().map(MovieSuggestionDto::id).toList();
+    }
+
+    private static Movie movie(Long id, String title, int year) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle(title);
+        movie.setReleaseYear(year);
+        return movie;
+    }
+}